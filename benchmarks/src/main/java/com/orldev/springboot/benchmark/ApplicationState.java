@@ -0,0 +1,70 @@
+package com.orldev.springboot.benchmark;
+
+import com.orldev.springboot.SpringBootTestingApplication;
+import com.orldev.springboot.model.Employee;
+import com.orldev.springboot.repository.EmployeeRepository;
+import com.orldev.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Boots the whole application once per trial against an in-memory H2 database seeded with `rows` employees
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    @Param("1000")
+    public int rows;
+
+    ConfigurableApplicationContext context;
+    EmployeeService employeeService;
+    EmployeeRepository employeeRepository;
+    List<Employee> employees;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        //command-line arguments so they override application.properties
+        context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;MODE=MySQL",
+                        "--spring.datasource.username=sa",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--employees.full-text.directory-type=local-heap",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--server.port=0");
+        employeeService = context.getBean(EmployeeService.class);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+
+        List<Employee> seed = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++){
+            seed.add(employee("seed" + i));
+        }
+        employees = employeeService.saveEmployees(seed);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        context.close();
+    }
+
+    Employee randomEmployee(){
+        return employees.get(ThreadLocalRandom.current().nextInt(employees.size()));
+    }
+
+    static Employee employee(String key){
+        return Employee.builder()
+                .firstName("First-" + key)
+                .lastName("Last-" + key)
+                .email(key + "@bench.dev")
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.orldev.springboot.benchmark;
+
+import com.orldev.springboot.dto.EmployeePage;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//EmployeeServiceImpl through the Spring proxy, so transactions and the second-level cache are included
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class EmployeeServiceBenchmark {
+
+    @Benchmark
+    public Optional<EmployeeView> getEmployeeById(ApplicationState state){
+        return state.employeeService.getEmployeeById(state.randomEmployee().getId());
+    }
+
+    @Benchmark
+    public Optional<Long> getEmployeeVersion(ApplicationState state){
+        return state.employeeService.getEmployeeVersion(state.randomEmployee().getId());
+    }
+
+    @Benchmark
+    public EmployeePage getEmployeesPage(ApplicationState state){
+        return state.employeeService.getEmployeesPage(null, 50, "id");
+    }
+
+    @Benchmark
+    public List<EmployeeView> getAllEmployees(ApplicationState state){
+        return state.employeeService.getAllEmployees();
+    }
+
+    @Benchmark
+    public long exportEmployees(ApplicationState state, Blackhole blackhole){
+        return state.employeeService.exportEmployees(blackhole::consume);
+    }
+
+    //Grows the table by one row per invocation
+    @Benchmark
+    public Employee saveEmployee(ApplicationState state){
+        return state.employeeService.saveEmployee(ApplicationState.employee(UUID.randomUUID().toString()));
+    }
+}
@@ -0,0 +1,97 @@
+package com.orldev.springboot.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orldev.springboot.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Serialization only, no Spring context: the same ObjectMapper configuration Spring MVC uses, for each negotiable format.
+//Payload sizes are printed once per trial since JMH only reports time.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class JacksonBenchmark {
+
+    private static final TypeReference<List<Employee>> EMPLOYEE_LIST = new TypeReference<>() {};
+
+    @Param({"10", "1000"})
+    public int listSize;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private Employee employee;
+    private byte[] employeeJson;
+    private List<Employee> employees;
+    private byte[] employeesJson;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        objectMapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        employee = employee(1);
+        employeeJson = objectMapper.writeValueAsBytes(employee);
+        employees = new ArrayList<>(listSize);
+        for(int i = 0; i < listSize; i++){
+            employees.add(employee(i));
+        }
+        employeesJson = objectMapper.writeValueAsBytes(employees);
+        System.out.printf("%n%s payload: employee %d bytes, list of %d %d bytes%n",
+                format, employeeJson.length, listSize, employeesJson.length);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public Employee deserializeEmployee() throws Exception {
+        return objectMapper.readValue(employeeJson, Employee.class);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployeeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public List<Employee> deserializeEmployeeList() throws Exception {
+        return objectMapper.readValue(employeesJson, EMPLOYEE_LIST);
+    }
+
+    private static Employee employee(long id){
+        return Employee.builder()
+                .id(id)
+                .firstName("First-" + id)
+                .lastName("Last-" + id)
+                .email("employee" + id + "@bench.dev")
+                .version(0L)
+                .lastModified(Instant.parse("2024-01-01T00:00:00Z"))
+                .build();
+    }
+}
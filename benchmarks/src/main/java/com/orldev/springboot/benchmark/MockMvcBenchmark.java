@@ -0,0 +1,75 @@
+package com.orldev.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+//Full DispatcherServlet dispatch (filters, argument resolution, message conversion) without the network,
+//requests and responses in each negotiable format
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class MockMvcBenchmark {
+
+    @Param({MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, "application/x-jackson-smile"})
+    public String mediaType;
+
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setup(ApplicationState state){
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) state.context).build();
+        //The mapper of the converter serving this media type, so request bodies match what the server reads
+        objectMapper = state.context.getBeansOfType(AbstractJackson2HttpMessageConverter.class).values().stream()
+                .filter(converter -> converter.getSupportedMediaTypes().contains(MediaType.parseMediaType(mediaType)))
+                .map(AbstractJackson2HttpMessageConverter::getObjectMapper)
+                .findFirst()
+                .orElseGet(() -> state.context.getBean(ObjectMapper.class));
+    }
+
+    @Benchmark
+    public MvcResult getEmployee(ApplicationState state) throws Exception {
+        return mockMvc.perform(get("/api/employees/{id}", state.randomEmployee().getId()).accept(mediaType)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getEmployeesPage() throws Exception {
+        return mockMvc.perform(get("/api/employees").param("limit", "50").accept(mediaType)).andReturn();
+    }
+
+    //Grows the table by one row per invocation
+    @Benchmark
+    public MvcResult createEmployee() throws Exception {
+        return mockMvc.perform(post("/api/employees")
+                        .contentType(mediaType)
+                        .accept(mediaType)
+                        .content(objectMapper.writeValueAsBytes(ApplicationState.employee(UUID.randomUUID().toString()))))
+                .andReturn();
+    }
+}
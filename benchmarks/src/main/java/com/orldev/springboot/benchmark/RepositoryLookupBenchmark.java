@@ -0,0 +1,45 @@
+package com.orldev.springboot.benchmark;
+
+import com.orldev.springboot.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+//The four equivalent firstName/lastName lookups in EmployeeRepository, each on a random seeded row
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class RepositoryLookupBenchmark {
+
+    @Benchmark
+    public Employee findByJPQLIndex(ApplicationState state){
+        Employee employee = state.randomEmployee();
+        return state.employeeRepository.findByJPQLIndex(employee.getFirstName(), employee.getLastName());
+    }
+
+    @Benchmark
+    public Employee findByJPQLNamed(ApplicationState state){
+        Employee employee = state.randomEmployee();
+        return state.employeeRepository.findByJPQLNamed(employee.getFirstName(), employee.getLastName());
+    }
+
+    @Benchmark
+    public Employee findByNativeSQLIndex(ApplicationState state){
+        Employee employee = state.randomEmployee();
+        return state.employeeRepository.findByNativeSQLIndex(employee.getFirstName(), employee.getLastName());
+    }
+
+    @Benchmark
+    public Employee findByNativeSQLNamed(ApplicationState state){
+        Employee employee = state.randomEmployee();
+        return state.employeeRepository.findByNativeSQLNamed(employee.getFirstName(), employee.getLastName());
+    }
+}
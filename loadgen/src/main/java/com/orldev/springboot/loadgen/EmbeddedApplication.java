@@ -0,0 +1,69 @@
+package com.orldev.springboot.loadgen;
+
+import com.orldev.springboot.SpringBootTestingApplication;
+import com.orldev.springboot.model.Employee;
+import com.orldev.springboot.repository.EmployeeRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+//The application started in-process on a random port against an in-memory H2 database
+public class EmbeddedApplication implements AutoCloseable {
+
+    private static final int SEED_CHUNK_SIZE = 10_000;
+
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedApplication(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    public static EmbeddedApplication start(String... extraArgs){
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:loadgen;DB_CLOSE_DELAY=-1;MODE=MySQL",
+                "--spring.datasource.username=sa",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--employees.full-text.directory-type=local-heap",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--server.port=0"));
+        args.addAll(List.of(extraArgs));
+        return new EmbeddedApplication(new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .run(args.toArray(new String[0])));
+    }
+
+    public URI baseUri(){
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        return URI.create("http://localhost:" + port);
+    }
+
+    public ConfigurableApplicationContext context(){
+        return context;
+    }
+
+    //Inserts through the repository in chunked transactions so the persistence context never holds more than one chunk
+    public void seed(long rows, SyntheticEmployees employees, EmployeeIds ids){
+        EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        for(long from = 0; from < rows; from += SEED_CHUNK_SIZE){
+            List<Employee> chunk = new ArrayList<>(SEED_CHUNK_SIZE);
+            for(long n = from; n < Math.min(rows, from + SEED_CHUNK_SIZE); n++){
+                chunk.add(employees.employee(n));
+            }
+            List<Employee> saved = transactionTemplate.execute(status -> employeeRepository.saveAll(chunk));
+            saved.forEach(employee -> ids.include(employee.getId()));
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
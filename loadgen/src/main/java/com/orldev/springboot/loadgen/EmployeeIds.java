@@ -0,0 +1,39 @@
+package com.orldev.springboot.loadgen;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Ids the generator may address: get/update pick from the seeded range, delete only removes rows this run created
+public class EmployeeIds {
+
+    private volatile long min = Long.MAX_VALUE;
+    private volatile long max = Long.MIN_VALUE;
+    private final ConcurrentLinkedDeque<Long> created = new ConcurrentLinkedDeque<>();
+
+    public synchronized void include(long id){
+        min = Math.min(min, id);
+        max = Math.max(max, id);
+    }
+
+    public boolean isEmpty(){
+        return max < min;
+    }
+
+    public long randomExisting(){
+        return ThreadLocalRandom.current().nextLong(min, max + 1);
+    }
+
+    public void created(long id){
+        created.addLast(id);
+    }
+
+    //null when nothing created by this run is left to delete
+    public Long takeCreated(){
+        return created.pollFirst();
+    }
+
+    @Override
+    public String toString() {
+        return isEmpty() ? "[]" : "[" + min + ".." + max + "]";
+    }
+}
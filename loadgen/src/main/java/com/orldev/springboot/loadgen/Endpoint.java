@@ -0,0 +1,21 @@
+package com.orldev.springboot.loadgen;
+
+import java.util.Locale;
+
+//The EmployeeController operations the generator can drive, keyed by their --mix name
+public enum Endpoint {
+    CREATE, LIST, PAGE, GET, UPDATE, DELETE;
+
+    public String key(){
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Endpoint fromKey(String key){
+        for(Endpoint endpoint : values()){
+            if(endpoint.key().equals(key.trim())){
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint '" + key + "', expected one of create, list, page, get, update, delete");
+    }
+}
@@ -0,0 +1,68 @@
+package com.orldev.springboot.loadgen;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Weighted choice of endpoints parsed from "get:70,page:10,create:10,update:5,delete:5"
+public class EndpointMix {
+
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+
+    private EndpointMix(Map<Endpoint, Integer> weights) {
+        endpoints = weights.keySet().toArray(new Endpoint[0]);
+        cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for(int i = 0; i < endpoints.length; i++){
+            total += weights.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static EndpointMix parse(String mix){
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for(String entry : mix.split(",")){
+            String[] parts = entry.split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if(weight < 0){
+                throw new IllegalArgumentException("Negative weight in mix: " + entry);
+            }
+            if(weight > 0){
+                weights.merge(Endpoint.fromKey(parts[0]), weight, Integer::sum);
+            }
+        }
+        if(weights.isEmpty()){
+            throw new IllegalArgumentException("Empty endpoint mix: " + mix);
+        }
+        return new EndpointMix(weights);
+    }
+
+    public Endpoint next(){
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for(int i = 0; i < cumulativeWeights.length; i++){
+            if(pick < cumulativeWeights[i]){
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    public Set<Endpoint> endpoints(){
+        return Set.copyOf(List.of(endpoints));
+    }
+
+    @Override
+    public String toString() {
+        List<String> entries = new ArrayList<>();
+        int previous = 0;
+        for(int i = 0; i < endpoints.length; i++){
+            entries.add(endpoints[i].key() + ":" + (cumulativeWeights[i] - previous));
+            previous = cumulativeWeights[i];
+        }
+        return String.join(",", entries);
+    }
+}
@@ -0,0 +1,128 @@
+package com.orldev.springboot.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//Per-endpoint latency in nanoseconds: one-second interval histograms in <out>/<endpoint>.hlog plus a summary
+public class LatencyReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Path out;
+    private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Histogram> totals = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, HistogramLogWriter> writers = new EnumMap<>(Endpoint.class);
+    private ScheduledExecutorService intervalLogger;
+    private Duration measured = Duration.ZERO;
+
+    public LatencyReport(Set<Endpoint> endpoints, Path out) {
+        this.out = out;
+        //CREATE is always tracked, DELETE falls back to it when there is nothing left to delete
+        for(Endpoint endpoint : Endpoint.values()){
+            if(endpoints.contains(endpoint) || endpoint == Endpoint.CREATE){
+                recorders.put(endpoint, new Recorder(3));
+                totals.put(endpoint, new Histogram(3));
+                errors.put(endpoint, new LongAdder());
+            }
+        }
+    }
+
+    //Starts the measured window: anything recorded before this call is discarded
+    public void start() throws IOException {
+        Files.createDirectories(out);
+        long now = System.currentTimeMillis();
+        for(Map.Entry<Endpoint, Recorder> entry : recorders.entrySet()){
+            HistogramLogWriter writer = writer(out.resolve(entry.getKey().key() + ".hlog"));
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(now);
+            writer.setBaseTime(now);
+            writer.outputLegend();
+            writers.put(entry.getKey(), writer);
+            entry.getValue().reset();
+        }
+        intervalLogger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "latency-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        intervalLogger.scheduleAtFixedRate(this::flushIntervals, 1, 1, TimeUnit.SECONDS);
+    }
+
+    public void record(Endpoint endpoint, long latencyNanos){
+        recorders.get(endpoint).recordValue(latencyNanos);
+    }
+
+    public void error(Endpoint endpoint){
+        errors.get(endpoint).increment();
+    }
+
+    public void finish(Duration measured) throws IOException, InterruptedException {
+        this.measured = measured;
+        intervalLogger.shutdown();
+        intervalLogger.awaitTermination(5, TimeUnit.SECONDS);
+        flushIntervals();
+        writers.values().forEach(HistogramLogWriter::close);
+        Files.writeString(out.resolve("summary.txt"), summary());
+    }
+
+    public long count(Endpoint endpoint){
+        return totals.containsKey(endpoint) ? totals.get(endpoint).getTotalCount() : 0;
+    }
+
+    public long errors(Endpoint endpoint){
+        return errors.containsKey(endpoint) ? errors.get(endpoint).sum() : 0;
+    }
+
+    public Histogram histogram(Endpoint endpoint){
+        return totals.get(endpoint);
+    }
+
+    public String summary(){
+        double seconds = Math.max(measured.toMillis(), 1) / 1000.0;
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT, "%-7s %10s %8s %10s %9s %9s %9s %9s%n",
+                "", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        totals.forEach((endpoint, histogram) -> summary.append(String.format(Locale.ROOT,
+                "%-7s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint.key(),
+                histogram.getTotalCount(),
+                errors(endpoint),
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI)));
+        return summary.toString();
+    }
+
+    private synchronized void flushIntervals(){
+        recorders.forEach((endpoint, recorder) -> {
+            Histogram interval = recorder.getIntervalHistogram();
+            totals.get(endpoint).add(interval);
+            writers.get(endpoint).outputIntervalHistogram(interval);
+        });
+    }
+
+    private static HistogramLogWriter writer(Path path) throws IOException {
+        try {
+            return new HistogramLogWriter(path.toFile());
+        } catch (FileNotFoundException e) {
+            throw new IOException("Cannot write " + path, e);
+        }
+    }
+}
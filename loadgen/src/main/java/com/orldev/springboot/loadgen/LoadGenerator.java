@@ -0,0 +1,233 @@
+package com.orldev.springboot.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orldev.springboot.model.Employee;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a weighted mix of EmployeeController endpoints in open or closed loop and reports latency per endpoint.
+ * <pre>
+ * --seed=1000000 --mode=open --rate=2000 --duration=60s          in-process app on H2, seeded through the repository
+ * --target=http://localhost:8080 --ids=1-1000000 --mode=closed --concurrency=64
+ * --mix=get:70,page:10,create:10,update:5,delete:5 --warmup=10s --out=target/loadgen
+ * </pre>
+ * Without --target the application is started in-process, otherwise --seed goes through POST /api/employees/batch.
+ */
+public class LoadGenerator {
+
+    private static final int REMOTE_SEED_BATCH_SIZE = 1_000;
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private final LoadOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EmployeeIds ids = new EmployeeIds();
+    private final AtomicLong sequence = new AtomicLong();
+    private final SyntheticEmployees employees = new SyntheticEmployees(Long.toString(System.currentTimeMillis(), 36));
+    private HttpClient client;
+    private URI baseUri;
+    private LatencyReport report;
+    private volatile long measureStartNanos;
+
+    public LoadGenerator(LoadOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator generator = new LoadGenerator(LoadOptions.parse(args));
+        System.out.print(generator.run().summary());
+    }
+
+    public LatencyReport run() throws IOException, InterruptedException {
+        EmbeddedApplication application = options.embedded() ? EmbeddedApplication.start() : null;
+        try {
+            baseUri = application != null ? application.baseUri() : URI.create(options.target());
+            client = HttpClient.newBuilder()
+                    .executor(Executors.newFixedThreadPool(Math.max(2, options.concurrency() / 4)))
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            if(options.maxId() > 0){
+                ids.include(options.minId());
+                ids.include(options.maxId());
+            }
+            if(options.seed() > 0){
+                long started = System.nanoTime();
+                if(application != null){
+                    application.seed(options.seed(), employees, ids);
+                }else{
+                    seedRemote(options.seed());
+                }
+                System.out.printf("Seeded %d employees %s in %d ms%n", options.seed(), ids,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+
+            //new rows continue after the seeded ones so their emails never collide
+            sequence.set(options.seed());
+            report = new LatencyReport(options.mix().endpoints(), options.out());
+            System.out.printf("%s loop, mix %s, warmup %s, duration %s%n", options.mode(), options.mix(),
+                    options.warmup(), options.duration());
+            if(options.mode() == LoadOptions.Mode.OPEN){
+                runOpenLoop();
+            }else{
+                runClosedLoop();
+            }
+            report.finish(options.duration());
+            return report;
+        } finally {
+            if(application != null){
+                application.close();
+            }
+        }
+    }
+
+    //Requests are scheduled at a fixed rate whether or not earlier ones have completed; latency counts from
+    //the intended start, so time spent queued behind a slow response is not hidden (coordinated omission)
+    private void runOpenLoop() throws IOException, InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency());
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+        long start = System.nanoTime();
+        measureStartNanos = start + options.warmup().toNanos();
+        long end = measureStartNanos + options.duration().toNanos();
+        boolean measuring = false;
+        for(long i = 0; ; i++){
+            long intended = start + i * intervalNanos;
+            if(intended >= end){
+                break;
+            }
+            if(!measuring && intended >= measureStartNanos){
+                report.start();
+                measuring = true;
+            }
+            long wait = intended - System.nanoTime();
+            if(wait > 0){
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = options.mix().next();
+            workers.execute(() -> call(endpoint, intended));
+        }
+        if(!measuring){
+            report.start();
+        }
+        workers.shutdown();
+        if(!workers.awaitTermination(DRAIN_TIMEOUT.toSeconds(), TimeUnit.SECONDS)){
+            System.out.println("Server did not drain the open-loop backlog within " + DRAIN_TIMEOUT);
+            workers.shutdownNow();
+        }
+    }
+
+    //Each worker waits for its response before sending the next request
+    private void runClosedLoop() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        measureStartNanos = start + options.warmup().toNanos();
+        long end = measureStartNanos + options.duration().toNanos();
+        List<Thread> workers = new ArrayList<>();
+        for(int i = 0; i < options.concurrency(); i++){
+            Thread worker = new Thread(() -> {
+                while(System.nanoTime() < end){
+                    call(options.mix().next(), System.nanoTime());
+                }
+            }, "loadgen-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        TimeUnit.NANOSECONDS.sleep(measureStartNanos - System.nanoTime());
+        report.start();
+        for(Thread worker : workers){
+            worker.join();
+        }
+    }
+
+    private void call(Endpoint endpoint, long startNanos){
+        Long deleteId = null;
+        if(endpoint == Endpoint.DELETE){
+            deleteId = ids.takeCreated();
+            if(deleteId == null){
+                endpoint = Endpoint.CREATE;
+            }
+        }
+        try {
+            HttpResponse<byte[]> response = client.send(request(endpoint, deleteId), HttpResponse.BodyHandlers.ofByteArray());
+            if(startNanos >= measureStartNanos){
+                report.record(endpoint, System.nanoTime() - startNanos);
+                if(response.statusCode() >= 400){
+                    report.error(endpoint);
+                }
+            }
+            if(endpoint == Endpoint.CREATE && response.statusCode() == 201){
+                ids.created(objectMapper.readTree(response.body()).get("id").asLong());
+            }
+        } catch (IOException e) {
+            if(startNanos >= measureStartNanos){
+                report.record(endpoint, System.nanoTime() - startNanos);
+                report.error(endpoint);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpRequest request(Endpoint endpoint, Long deleteId) throws IOException {
+        return switch (endpoint) {
+            case CREATE -> json(uri("/api/employees"))
+                    .POST(body(employees.employee(sequence.incrementAndGet()))).build();
+            case LIST -> HttpRequest.newBuilder(uri("/api/employees")).GET().build();
+            case PAGE -> HttpRequest.newBuilder(uri("/api/employees?limit=50")).GET().build();
+            case GET -> HttpRequest.newBuilder(uri("/api/employees/" + ids.randomExisting())).GET().build();
+            case UPDATE -> {
+                long n = sequence.incrementAndGet();
+                Employee employee = employees.employee(n);
+                employee.setEmail(employees.email("updated", n));
+                yield json(uri("/api/employees/" + ids.randomExisting())).PUT(body(employee)).build();
+            }
+            case DELETE -> HttpRequest.newBuilder(uri("/api/employees/" + deleteId)).DELETE().build();
+        };
+    }
+
+    private void seedRemote(long rows) throws IOException, InterruptedException {
+        for(long from = 0; from < rows; from += REMOTE_SEED_BATCH_SIZE){
+            List<Map<String, String>> batch = new ArrayList<>(REMOTE_SEED_BATCH_SIZE);
+            for(long n = from; n < Math.min(rows, from + REMOTE_SEED_BATCH_SIZE); n++){
+                batch.add(payload(employees.employee(n)));
+            }
+            HttpResponse<byte[]> response = client.send(json(uri("/api/employees/batch"))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(batch))).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if(response.statusCode() != 201){
+                throw new IOException("Seeding failed with HTTP " + response.statusCode() + ": " + new String(response.body()));
+            }
+            for(JsonNode employee : objectMapper.readTree(response.body())){
+                ids.include(employee.get("id").asLong());
+            }
+        }
+    }
+
+    private static HttpRequest.Builder json(URI uri){
+        return HttpRequest.newBuilder(uri).header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher body(Employee employee) throws IOException {
+        return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(payload(employee)));
+    }
+
+    private static Map<String, String> payload(Employee employee){
+        return Map.of("firstName", employee.getFirstName(), "lastName", employee.getLastName(), "email", employee.getEmail());
+    }
+
+    private URI uri(String path){
+        return baseUri.resolve(path);
+    }
+}
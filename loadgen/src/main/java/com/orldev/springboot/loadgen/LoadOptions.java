@@ -0,0 +1,79 @@
+package com.orldev.springboot.loadgen;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+//Command-line options, all of the form --name=value
+public record LoadOptions(String target,
+                          long seed,
+                          Mode mode,
+                          int concurrency,
+                          double rate,
+                          Duration warmup,
+                          Duration duration,
+                          EndpointMix mix,
+                          long minId,
+                          long maxId,
+                          Path out) {
+
+    public enum Mode {
+        //fixed arrival rate, latency measured from the intended start time (corrects coordinated omission)
+        OPEN,
+        //fixed number of workers each waiting for its previous response
+        CLOSED
+    }
+
+    private static final Set<String> NAMES = Set.of("target", "seed", "mode", "concurrency", "rate", "warmup",
+            "duration", "mix", "ids", "out");
+
+    public static LoadOptions parse(String... args){
+        Map<String, String> values = new HashMap<>();
+        for(String arg : args){
+            if(!arg.startsWith("--") || !arg.contains("=")){
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if(!NAMES.contains(name)){
+                throw new IllegalArgumentException("Unknown option --" + name + ", expected one of " + NAMES);
+            }
+            values.put(name, arg.substring(arg.indexOf('=') + 1));
+        }
+
+        String target = values.get("target");
+        long seed = Long.parseLong(values.getOrDefault("seed", target == null ? "100000" : "0"));
+        long minId = 0;
+        long maxId = 0;
+        if(values.containsKey("ids")){
+            String[] range = values.get("ids").split("-");
+            minId = Long.parseLong(range[0].trim());
+            maxId = Long.parseLong(range[1].trim());
+        }else if(seed == 0){
+            throw new IllegalArgumentException("Either --seed=<rows> or --ids=<min>-<max> is needed so get/update know which rows exist");
+        }
+
+        LoadOptions options = new LoadOptions(target,
+                seed,
+                Mode.valueOf(values.getOrDefault("mode", "closed").toUpperCase()),
+                Integer.parseInt(values.getOrDefault("concurrency", "16")),
+                Double.parseDouble(values.getOrDefault("rate", "500")),
+                DurationStyle.detectAndParse(values.getOrDefault("warmup", "10s")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "60s")),
+                EndpointMix.parse(values.getOrDefault("mix", "get:70,page:10,create:10,update:5,delete:5")),
+                minId,
+                maxId,
+                Path.of(values.getOrDefault("out", "target/loadgen")));
+        if(options.concurrency() < 1 || options.rate() <= 0){
+            throw new IllegalArgumentException("--concurrency and --rate must be positive");
+        }
+        return options;
+    }
+
+    public boolean embedded(){
+        return target == null;
+    }
+}
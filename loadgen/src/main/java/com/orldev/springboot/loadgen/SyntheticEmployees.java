@@ -0,0 +1,36 @@
+package com.orldev.springboot.loadgen;
+
+import com.orldev.springboot.model.Employee;
+
+import java.util.Locale;
+
+//Deterministic employee rows: a small name vocabulary (realistic index selectivity) and unique emails per run
+public class SyntheticEmployees {
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael",
+            "Linda", "David", "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas",
+            "Sarah", "Charles", "Karen", "Daniel", "Lisa", "Matthew", "Nancy", "Anthony", "Betty", "Mark", "Sandra"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas",
+            "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark"};
+
+    private final String runId;
+
+    public SyntheticEmployees(String runId) {
+        this.runId = runId;
+    }
+
+    public Employee employee(long n){
+        String firstName = FIRST_NAMES[(int) (n % FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[(int) ((n / FIRST_NAMES.length) % LAST_NAMES.length)];
+        return Employee.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email(firstName + "." + lastName, n))
+                .build();
+    }
+
+    public String email(String local, long n){
+        return (local + "." + n + "." + runId + "@loadgen.dev").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,61 @@
+package com.orldev.springboot.loadgen;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LoadGeneratorTests {
+
+    // JUnit test for a closed-loop run against the in-process application
+    @DisplayName("JUnit test for a closed-loop run against the in-process application")
+    @Test
+    public void givenEmbeddedApplication_whenRunClosedLoop_thenReportEveryEndpoint(@TempDir Path out) throws Exception {
+        //given - precondition or setup
+        LoadOptions options = LoadOptions.parse("--seed=500", "--mode=closed", "--concurrency=4",
+                "--warmup=1s", "--duration=2s", "--mix=create:2,list:1,page:1,get:4,update:1,delete:1", "--out=" + out);
+
+        //when - action ir the behaviour we are going to test
+        LatencyReport report = new LoadGenerator(options).run();
+
+        //then  - verify the output
+        for(Endpoint endpoint : Endpoint.values()){
+            assertThat(report.count(endpoint)).as(endpoint.key()).isPositive();
+            assertThat(report.errors(endpoint)).as(endpoint.key()).isZero();
+            assertThat(out.resolve(endpoint.key() + ".hlog")).isNotEmptyFile();
+        }
+        assertThat(out.resolve("summary.txt")).content().contains("p99.9 ms");
+    }
+
+    // JUnit test for an open-loop run at a fixed arrival rate
+    @DisplayName("JUnit test for an open-loop run at a fixed arrival rate")
+    @Test
+    public void givenFixedRate_whenRunOpenLoop_thenIssueRateTimesDuration(@TempDir Path out) throws Exception {
+        //given - precondition or setup
+        LoadOptions options = LoadOptions.parse("--seed=100", "--mode=open", "--rate=200", "--concurrency=8",
+                "--warmup=0s", "--duration=2s", "--mix=get", "--out=" + out);
+
+        //when - action ir the behaviour we are going to test
+        LatencyReport report = new LoadGenerator(options).run();
+
+        //then  - verify the output
+        assertThat(report.count(Endpoint.GET)).isEqualTo(400);
+        assertThat(report.errors(Endpoint.GET)).isZero();
+    }
+
+    // JUnit test for rejecting a remote target without a known id range
+    @DisplayName("JUnit test for rejecting a remote target without a known id range")
+    @Test
+    public void givenTargetWithoutIds_whenParse_thenThrowsIllegalArgumentException(){
+        //given - precondition or setup
+        String[] args = {"--target=http://localhost:8080", "--mode=closed"};
+
+        //when - action ir the behaviour we are going to test
+        //then  - verify the output
+        assertThatThrownBy(() -> LoadOptions.parse(args)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,150 @@
+package com.orldev.springboot.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.orldev.springboot.datasource.ReplicaRoutingDataSource;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.event.EmployeeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+//GET /api/employees/{id} bodies as already encoded UTF-8 JSON (plus an optional gzip copy), written to the response
+//as bytes. Entries are dropped after each committed update or delete and are only ever loaded from the primary, so a
+//lagging read replica cannot put back the old row; other nodes' writes are bounded by the ttl.
+@Component
+public class EmployeeJsonCache {
+
+    public static final String CACHE_NAME = "employees.json";
+
+    //version and lastModified are the validators of the encoded body
+    public record Entry(byte[] json, byte[] gzip, Long version, Instant lastModified) {
+    }
+
+    private final boolean enabled;
+    private final int gzipMinSize;
+    private final ObjectMapper objectMapper;
+    private final AsyncCache<Long, Entry> cache;
+
+    public EmployeeJsonCache(@Value("${employees.json-cache.enabled:true}") boolean enabled,
+                             @Value("${employees.json-cache.max-size:10000}") long maxSize,
+                             @Value("${employees.json-cache.ttl:10m}") Duration ttl,
+                             @Value("${employees.json-cache.gzip:false}") boolean gzip,
+                             @Value("${employees.json-cache.gzip-min-size:512}") int gzipMinSize,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.gzipMinSize = gzip ? gzipMinSize : Integer.MAX_VALUE;
+        this.objectMapper = objectMapper;
+        //Weighed by encoded size would be fairer, but a row count matches employees.cache.max-size
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .<Long, Entry>buildAsync(), CACHE_NAME);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<Entry> getIfPresent(Long id) {
+        CompletableFuture<Entry> entry = cache.getIfPresent(id);
+        return entry != null && entry.isDone() && !entry.isCompletedExceptionally()
+                ? Optional.ofNullable(entry.join())
+                : Optional.empty();
+    }
+
+    //Concurrent misses share one load. The load runs on the calling thread pinned to the primary, outside of any
+    //cache lock, and an invalidation while it runs keeps its result out of the cache.
+    public Optional<Entry> get(Long id, Function<Long, Optional<EmployeeView>> loader) {
+        CompletableFuture<Entry> cached = cache.getIfPresent(id);
+        if(cached != null){
+            return Optional.ofNullable(join(cached));
+        }
+        CompletableFuture<Entry> loading = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = cache.asMap().putIfAbsent(id, loading);
+        if(existing != null){
+            return Optional.ofNullable(join(existing));
+        }
+        boolean pinned = ReplicaRoutingDataSource.isPinnedToPrimary();
+        if(!pinned){
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        try {
+            //A null (missing employee) or failed future is removed from the cache by Caffeine
+            Entry entry = loader.apply(id).map(this::encode).orElse(null);
+            loading.complete(entry);
+            return Optional.ofNullable(entry);
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            if(!pinned){
+                ReplicaRoutingDataSource.unpin();
+            }
+        }
+    }
+
+    public void invalidate(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    //New rows are cached on their first read
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent(EmployeeEvent event) {
+        if(event.type() != EmployeeEvent.Type.CREATED){
+            invalidate(event.id());
+        }
+    }
+
+    Entry encode(EmployeeView employee) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(employee);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Employee could not be encoded, id: " + employee.id(), e);
+        }
+        return new Entry(json, json.length >= gzipMinSize ? gzip(json) : null, employee.version(), employee.lastModified());
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static Entry join(CompletableFuture<Entry> entry) {
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException cause){
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
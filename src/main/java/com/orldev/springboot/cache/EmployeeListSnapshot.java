@@ -0,0 +1,284 @@
+package com.orldev.springboot.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orldev.springboot.dto.EmployeeTableStats;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.event.EmployeeEvent;
+import com.orldev.springboot.service.EmployeeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+//The GET /api/employees body kept encoded, in id order, as chunks of chunk-size ids. Rows written through this node
+//are re-read with one multi-get and only their chunks are joined again; a table that no longer matches its stats
+//(writes from another node) or too many changed rows make the next request rebuild the whole snapshot.
+//One request at a time brings the snapshot up to date, the others are answered with the last body meanwhile.
+@Component
+public class EmployeeListSnapshot {
+
+    private static final byte[] OPEN = {'['};
+    private static final byte[] COMMA = {','};
+    private static final byte[] CLOSE = {']'};
+
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int maxIncremental;
+    private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
+    private final Set<Long> dirtyIds = ConcurrentHashMap.newKeySet();
+    private final Counter fullRebuilds;
+    private final Counter incrementalRebuilds;
+
+    //Guarded by lock, a ReentrantLock so the JDBC reads of a rebuild do not pin a virtual thread's carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeMap<Long, Chunk> chunks = new TreeMap<>();
+    private long count;
+    private volatile boolean loaded;
+    //Last body built, immutable
+    private volatile Body published;
+
+    private record Row(byte[] json, Instant lastModified) {
+    }
+
+    //Rows of ids [key * chunkSize, (key + 1) * chunkSize), joined lazily after a change
+    private static final class Chunk {
+        private final TreeMap<Long, Row> rows = new TreeMap<>();
+        private byte[] joined;
+        private Instant lastModified;
+
+        private void put(Long id, Row row) {
+            rows.put(id, row);
+            joined = null;
+        }
+
+        private void remove(Long id) {
+            rows.remove(id);
+            joined = null;
+        }
+
+        private byte[] joined() {
+            if(joined == null){
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                Instant max = null;
+                for (Row row : rows.values()) {
+                    if(out.size() > 0){
+                        out.write(',');
+                    }
+                    out.writeBytes(row.json());
+                    max = latest(max, row.lastModified());
+                }
+                joined = out.toByteArray();
+                lastModified = max;
+            }
+            return joined;
+        }
+    }
+
+    //One encoded list plus the table stats it was built from. Every getInputStream() starts over, so the
+    //body can be written more than once (and sliced for Range requests).
+    public static final class Body extends AbstractResource {
+        private final EmployeeTableStats stats;
+        private final List<byte[]> parts;
+        private final long contentLength;
+
+        public Body(EmployeeTableStats stats, List<byte[]> parts) {
+            this.stats = stats;
+            this.parts = parts;
+            this.contentLength = parts.stream().mapToLong(part -> part.length).sum();
+        }
+
+        public EmployeeTableStats getStats() {
+            return stats;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new SequenceInputStream(Collections.enumeration(
+                    parts.stream().map(ByteArrayInputStream::new).toList()));
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Employee list snapshot " + stats;
+        }
+    }
+
+    public EmployeeListSnapshot(@Value("${employees.list-snapshot.enabled:true}") boolean enabled,
+                                @Value("${employees.list-snapshot.chunk-size:256}") int chunkSize,
+                                @Value("${employees.list-snapshot.max-incremental:1000}") int maxIncremental,
+                                EmployeeService employeeService,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.maxIncremental = maxIncremental;
+        this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.fullRebuilds = Counter.builder("employees.list.snapshot.rebuilds").tag("mode", "full")
+                .description("Employee list snapshots encoded from the whole table").register(meterRegistry);
+        this.incrementalRebuilds = Counter.builder("employees.list.snapshot.rebuilds").tag("mode", "incremental")
+                .description("Employee list snapshots patched with the changed rows").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    //The snapshot brought up to date with the table described by stats, or the previous body (tagged with its own
+    //stats) while another request is updating it
+    public Body current(EmployeeTableStats stats) {
+        Body last = published;
+        if(last != null && dirtyIds.isEmpty() && last.getStats().equals(stats)){
+            return last;
+        }
+        if(!lock.tryLock()){
+            if(last != null){
+                return last;
+            }
+            //Nothing to serve before the first build
+            lock.lock();
+        }
+        try {
+            return update(stats);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Body update(EmployeeTableStats stats) {
+        boolean rebuilt = !loaded || dirtyIds.size() > maxIncremental;
+        if(rebuilt){
+            rebuild();
+        }else if(!dirtyIds.isEmpty()){
+            refreshDirty();
+            incrementalRebuilds.increment();
+        }
+        Body body = body();
+        if(!rebuilt && !body.getStats().equals(stats)){
+            //Changed elsewhere, or by a write whose event has not arrived yet
+            rebuild();
+            body = body();
+        }
+        published = body;
+        return body;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent(EmployeeEvent event) {
+        //Until the first load there is nothing to patch
+        if(loaded){
+            dirtyIds.add(event.id());
+        }
+    }
+
+    private void rebuild() {
+        //Rows changed from here on are re-read by the next request
+        loaded = true;
+        dirtyIds.clear();
+        chunks.clear();
+        count = 0;
+        try {
+            employeeService.exportEmployees(employee -> put(employee.id(), encode(employee)));
+        } catch (RuntimeException e) {
+            loaded = false;
+            throw e;
+        }
+        fullRebuilds.increment();
+    }
+
+    private void refreshDirty() {
+        List<Long> ids = new ArrayList<>(dirtyIds);
+        dirtyIds.removeAll(ids);
+        //One multi-get for every changed row, ids without a row were deleted
+        Map<Long, EmployeeView> employees = employeeService.getEmployeesById(ids);
+        for (Long id : ids) {
+            EmployeeView employee = employees.get(id);
+            if(employee == null){
+                remove(id);
+            }else{
+                put(id, encode(employee));
+            }
+        }
+    }
+
+    private void put(Long id, Row row) {
+        Chunk chunk = chunks.computeIfAbsent(Math.floorDiv(id, chunkSize), key -> new Chunk());
+        if(!chunk.rows.containsKey(id)){
+            count++;
+        }
+        chunk.put(id, row);
+    }
+
+    private void remove(Long id) {
+        Long key = Math.floorDiv(id, (long) chunkSize);
+        Chunk chunk = chunks.get(key);
+        if(chunk == null || !chunk.rows.containsKey(id)){
+            return;
+        }
+        chunk.remove(id);
+        count--;
+        if(chunk.rows.isEmpty()){
+            chunks.remove(key);
+        }
+    }
+
+    private Body body() {
+        List<byte[]> parts = new ArrayList<>(chunks.size() * 2 + 1);
+        parts.add(OPEN);
+        Instant lastModified = null;
+        for (Chunk chunk : chunks.values()) {
+            if(parts.size() > 1){
+                parts.add(COMMA);
+            }
+            parts.add(chunk.joined());
+            lastModified = latest(lastModified, chunk.lastModified);
+        }
+        parts.add(CLOSE);
+        Long maxId = chunks.isEmpty() ? null : chunks.lastEntry().getValue().rows.lastKey();
+        return new Body(new EmployeeTableStats(count, maxId, lastModified), parts);
+    }
+
+    private Row encode(EmployeeView employee) {
+        try {
+            return new Row(objectMapper.writeValueAsBytes(employee), employee.lastModified());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Employee could not be encoded, id: " + employee.id(), e);
+        }
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        if(a == null || b == null){
+            return Objects.requireNonNullElse(a, b);
+        }
+        return a.isAfter(b) ? a : b;
+    }
+}
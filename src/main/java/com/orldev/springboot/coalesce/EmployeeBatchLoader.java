@@ -0,0 +1,150 @@
+package com.orldev.springboot.coalesce;
+
+import com.orldev.springboot.datasource.ReplicaRoutingDataSource;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.shard.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+//DataLoader-style batching of lookups by id: the first caller of a batch waits out the window (or until
+//max-batch-size ids joined), then runs one query for every id on its own thread. Batches are kept per shard and
+//per primary pin, so each id is read where its caller would have read it.
+public class EmployeeBatchLoader {
+
+    private record BatchKey(int shard, boolean primary) {
+    }
+
+    private static final class Batch {
+        private final Map<Long, CompletableFuture<Optional<EmployeeView>>> results = new LinkedHashMap<>();
+    }
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Duration waitTimeout;
+    private final DistributionSummary batchSizes;
+    private final Counter timedOut;
+
+    //Open batches, guarded by lock; leaders wait on batchClosed for the window to end or the batch to fill.
+    //A ReentrantLock rather than a monitor, so a waiting virtual thread does not pin its carrier.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchClosed = lock.newCondition();
+    private final Map<BatchKey, Batch> open = new HashMap<>();
+
+    public EmployeeBatchLoader(Duration window, int maxBatchSize, Duration waitTimeout, MeterRegistry meterRegistry) {
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.waitTimeout = waitTimeout;
+        this.batchSizes = DistributionSummary.builder("employees.batch.loader.batch.size")
+                .description("Ids resolved by one batched lookup")
+                .register(meterRegistry);
+        this.timedOut = Counter.builder("employees.batch.loader.timeouts")
+                .description("Calls that gave up waiting for their batch")
+                .register(meterRegistry);
+    }
+
+    public Optional<EmployeeView> load(Long id, Function<Collection<Long>, Map<Long, EmployeeView>> batchCall) {
+        BatchKey key = new BatchKey(ShardContext.current(), ReplicaRoutingDataSource.isPinnedToPrimary());
+        Batch batch;
+        CompletableFuture<Optional<EmployeeView>> result;
+        boolean leader;
+        lock.lock();
+        try {
+            batch = open.get(key);
+            leader = batch == null;
+            if(leader){
+                batch = new Batch();
+                open.put(key, batch);
+            }
+            result = batch.results.computeIfAbsent(id, batchId -> new CompletableFuture<>());
+            if(batch.results.size() >= maxBatchSize){
+                open.remove(key);
+                batchClosed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if(!leader){
+            return await(result, id);
+        }
+        closeAfterWindow(key, batch);
+        dispatch(batch, batchCall);
+        return result.join();
+    }
+
+    //Returns once the window is over or the batch is full; no id joins the batch afterwards
+    private void closeAfterWindow(BatchKey key, Batch batch) {
+        long remaining = windowNanos;
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            while (open.get(key) == batch && remaining > 0) {
+                try {
+                    remaining = batchClosed.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    //The rest of the batch depends on this caller, dispatch now and keep the interrupt
+                    interrupted = true;
+                    break;
+                }
+            }
+            open.remove(key, batch);
+        } finally {
+            lock.unlock();
+        }
+        if(interrupted){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch(Batch batch, Function<Collection<Long>, Map<Long, EmployeeView>> batchCall) {
+        List<Long> ids = List.copyOf(batch.results.keySet());
+        batchSizes.record(ids.size());
+        try {
+            Map<Long, EmployeeView> employees = batchCall.apply(ids);
+            batch.results.forEach((id, result) -> result.complete(Optional.ofNullable(employees.get(id))));
+        } catch (RuntimeException | Error e) {
+            batch.results.values().forEach(result -> result.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    private Optional<EmployeeView> await(CompletableFuture<Optional<EmployeeView>> result, Long id) {
+        try {
+            return result.get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException cause){
+                throw cause;
+            }
+            if(e.getCause() instanceof Error cause){
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw new QueryTimeoutException("Timed out after " + waitTimeout.toMillis() + " ms waiting for the batched lookup of "
+                    + id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            CancellationException cancellation = new CancellationException("Interrupted while waiting for the batched lookup of " + id);
+            cancellation.initCause(e);
+            throw cancellation;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.orldev.springboot.coalesce;
+
+import com.orldev.springboot.datasource.ReplicaRoutingDataSource;
+import com.orldev.springboot.event.EmployeeEvent;
+import com.orldev.springboot.model.Employee;
+import com.orldev.springboot.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+//Coalescing of EmployeeService lookups by id, outside @Transactional so waiting callers hold no connection.
+//Single-flight: concurrent getEmployeeById (or getEmployeeVersion) calls for one id share a single call; lookups
+//pinned to the primary never join one that may read a replica, and a committed write starts a fresh flight for its id.
+//Batch loader: getEmployeeById calls for different ids within the batch window share one getEmployeesById query;
+//ids in the second-level cache are read right away, they need no query and gain nothing from waiting.
+@Aspect
+@Component
+//Ahead of the transaction advice (lowest precedence), behind Spring's own HIGHEST_PRECEDENCE + 1 interceptor
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class EmployeeLookupCoalescing {
+
+    private record Key(Long id, boolean primary) {
+    }
+
+    //Null when disabled
+    private final SingleFlight<Key, Object> byId;
+    private final SingleFlight<Key, Object> versions;
+    private final EmployeeBatchLoader batchLoader;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public EmployeeLookupCoalescing(@Value("${employees.single-flight.enabled:true}") boolean singleFlight,
+                                    @Value("${employees.single-flight.wait-timeout:5s}") Duration waitTimeout,
+                                    @Value("${employees.batch-loader.enabled:true}") boolean batchLoader,
+                                    @Value("${employees.batch-loader.window:2ms}") Duration batchWindow,
+                                    @Value("${employees.batch-loader.max-batch-size:100}") int maxBatchSize,
+                                    EntityManagerFactory entityManagerFactory,
+                                    MeterRegistry meterRegistry) {
+        this.byId = singleFlight ? new SingleFlight<>("employee-by-id", waitTimeout, meterRegistry) : null;
+        this.versions = singleFlight ? new SingleFlight<>("employee-version", waitTimeout, meterRegistry) : null;
+        this.batchLoader = batchLoader ? new EmployeeBatchLoader(batchWindow, maxBatchSize, waitTimeout, meterRegistry) : null;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Around("execution(* com.orldev.springboot.service.impl.EmployeeServiceImpl.getEmployeeById(Long))")
+    public Object coalesceById(ProceedingJoinPoint joinPoint) throws Throwable {
+        Long id = (Long) joinPoint.getArgs()[0];
+        if(batchLoader == null || id == null || entityManagerFactory.getCache().contains(Employee.class, id)){
+            return coalesce(byId, joinPoint, id, () -> proceed(joinPoint));
+        }
+        //getThis() is the transactional proxy
+        EmployeeService employeeService = (EmployeeService) joinPoint.getThis();
+        return coalesce(byId, joinPoint, id, () -> batchLoader.load(id, employeeService::getEmployeesById));
+    }
+
+    @Around("execution(* com.orldev.springboot.service.impl.EmployeeServiceImpl.getEmployeeVersion(Long))")
+    public Object coalesceVersion(ProceedingJoinPoint joinPoint) throws Throwable {
+        Long id = (Long) joinPoint.getArgs()[0];
+        return coalesce(versions, joinPoint, id, () -> proceed(joinPoint));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent(EmployeeEvent event) {
+        if(byId == null){
+            return;
+        }
+        for (boolean primary : new boolean[]{false, true}) {
+            byId.forget(new Key(event.id(), primary));
+            versions.forget(new Key(event.id(), primary));
+        }
+    }
+
+    private static Object coalesce(SingleFlight<Key, Object> flight, ProceedingJoinPoint joinPoint, Long id,
+                                   Supplier<Object> lookup) throws Throwable {
+        //Inside a transaction the caller may see its own uncommitted writes, it cannot share another call's result
+        if(id == null || TransactionSynchronizationManager.isActualTransactionActive()){
+            return joinPoint.proceed();
+        }
+        if(flight == null){
+            return lookup.get();
+        }
+        return flight.execute(new Key(id, ReplicaRoutingDataSource.isPinnedToPrimary()), lookup);
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
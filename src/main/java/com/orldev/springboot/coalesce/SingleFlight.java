@@ -0,0 +1,104 @@
+package com.orldev.springboot.coalesce;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+//Concurrent calls for the same key share one execution: the first caller (the leader) runs it on its own thread,
+//the others wait up to wait-timeout for its result or its exception. Results are shared, so they must be immutable.
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final String name;
+    private final Duration waitTimeout;
+    private final Counter leaders;
+    private final Counter coalesced;
+    private final Counter timedOut;
+    private final Counter cancelled;
+
+    public SingleFlight(String name, Duration waitTimeout, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.waitTimeout = waitTimeout;
+        this.leaders = counter(name, "leader", "Calls that ran the lookup", meterRegistry);
+        this.coalesced = counter(name, "coalesced", "Calls answered by another call's in-flight lookup", meterRegistry);
+        this.timedOut = counter(name, "timeout", "Calls that gave up waiting for an in-flight lookup", meterRegistry);
+        this.cancelled = counter(name, "cancelled", "Calls interrupted while waiting for an in-flight lookup", meterRegistry);
+        Gauge.builder("employees.single.flight.in.flight", flights, Map::size)
+                .tag("name", name)
+                .description("Lookups currently in flight")
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+        if(existing != null){
+            return await(key, existing);
+        }
+        leaders.increment();
+        try {
+            V value = call.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            //The followers would have hit the same failure
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    //Calls from now on start a new flight, callers already waiting still get the current one's result
+    public void forget(K key) {
+        flights.remove(key);
+    }
+
+    private V await(K key, CompletableFuture<V> flight) {
+        try {
+            V value = flight.get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            coalesced.increment();
+            return value;
+        } catch (ExecutionException e) {
+            coalesced.increment();
+            if(e.getCause() instanceof RuntimeException cause){
+                throw cause;
+            }
+            if(e.getCause() instanceof Error cause){
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            //The leader keeps running for the callers still waiting
+            timedOut.increment();
+            throw new QueryTimeoutException("Timed out after " + waitTimeout.toMillis() + " ms waiting for the in-flight "
+                    + name + " lookup of " + key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled.increment();
+            CancellationException cancellation = new CancellationException("Interrupted while waiting for the in-flight "
+                    + name + " lookup of " + key);
+            cancellation.initCause(e);
+            throw cancellation;
+        }
+    }
+
+    private static Counter counter(String name, String outcome, String description, MeterRegistry meterRegistry) {
+        return Counter.builder("employees.single.flight.calls")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .description(description)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.orldev.springboot.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+//CBOR and Smile for high-rate internal clients (Accept / Content-Type application/cbor or application/x-jackson-smile).
+//Same mappers as JSON (spring.jackson.*, modules), only the encoding differs. They replace Spring MVC's defaults
+//at the same position, after JSON, so JSON stays the answer to */* and to requests without Accept.
+@Configuration
+public class BinaryFormatsConfig {
+
+    //The builder bean is a prototype configured by JacksonAutoConfiguration, each call gets a fresh one
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,43 @@
+package com.orldev.springboot.config;
+
+import com.orldev.springboot.limit.AdaptiveConcurrencyLimit;
+import com.orldev.springboot.limit.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+//Adaptive concurrency limits for /api/employees (see ConcurrencyLimitFilter), first in the filter chain so shed
+//requests cost nothing downstream
+@Configuration
+@ConditionalOnProperty(name = "employees.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(Environment environment, MeterRegistry meterRegistry,
+                                                                                 @Value("${employees.concurrency-limit.reject-status:503}") int rejectStatus,
+                                                                                 @Value("${employees.concurrency-limit.retry-after:1s}") Duration retryAfter) {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limit(environment, "read", 20, 200),
+                limit(environment, "write", 10, 100), rejectStatus, retryAfter, meterRegistry);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    private static AdaptiveConcurrencyLimit limit(Environment environment, String kind, int initialLimit, int maxLimit) {
+        String prefix = "employees.concurrency-limit.";
+        return new AdaptiveConcurrencyLimit(
+                environment.getProperty(prefix + kind + ".initial-limit", Integer.class, initialLimit),
+                environment.getProperty(prefix + "min-limit", Integer.class, 2),
+                environment.getProperty(prefix + kind + ".max-limit", Integer.class, maxLimit),
+                environment.getProperty(prefix + "smoothing", Double.class, 0.2),
+                environment.getProperty(prefix + "rtt-tolerance", Double.class, 1.5),
+                environment.getProperty(prefix + "long-window", Integer.class, 600));
+    }
+}
@@ -0,0 +1,30 @@
+package com.orldev.springboot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.core.env.Environment;
+
+//Extra Hikari pools (replicas, shards) built like the auto-configured one: spring.datasource.* credentials and
+//spring.datasource.hikari.* settings. They are not beans, so metrics are bound here (hikaricp.* tagged with pool=name)
+final class DataSourcePools {
+
+    private DataSourcePools() {
+    }
+
+    static HikariDataSource hikari(String name, String url, DataSourceProperties properties,
+                                   Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .driverClassName(DatabaseDriver.fromJdbcUrl(url).getDriverClassName())
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        dataSource.setMetricRegistry(meterRegistry);
+        return dataSource;
+    }
+}
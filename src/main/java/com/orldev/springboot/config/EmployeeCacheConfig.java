@@ -0,0 +1,70 @@
+package com.orldev.springboot.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+//Second-level cache for Employee: a bounded in-process Caffeine JCache region handed to Hibernate
+@Configuration
+public class EmployeeCacheConfig {
+
+    public static final String EMPLOYEE_REGION = "employees";
+
+    public enum ExpiryMode { AFTER_WRITE, AFTER_ACCESS }
+
+    //A manager of our own under a unique URI: the provider's default manager is JVM-wide, so a region created there
+    //by another context would silently keep its settings, and closing it would tear down every other user's caches
+    @Bean(destroyMethod = "close")
+    public CacheManager employeeCacheManager(@Value("${employees.cache.max-size:10000}") long maxSize,
+                                             @Value("${employees.cache.ttl:10m}") Duration ttl,
+                                             @Value("${employees.cache.expiry-mode:AFTER_WRITE}") ExpiryMode expiryMode) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("urn:employees-cache:" + UUID.randomUUID()), EmployeeCacheConfig.class.getClassLoader());
+
+        //Size bound is evicted by Caffeine's W-TinyLFU policy, the TTL bounds staleness from writes made by other nodes
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        if(expiryMode == ExpiryMode.AFTER_ACCESS){
+            configuration.setExpireAfterAccess(OptionalLong.of(ttl.toNanos()));
+        }else{
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        configuration.setStatisticsEnabled(true);
+
+        if(cacheManager.getCache(EMPLOYEE_REGION) != null){
+            cacheManager.destroyCache(EMPLOYEE_REGION);
+        }
+        cacheManager.createCache(EMPLOYEE_REGION, configuration);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer employeeCacheHibernateCustomizer(CacheManager employeeCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, employeeCacheManager);
+    }
+
+    //Exposes cache.gets (hit/miss), cache.puts, cache.evictions and cache.removals for the region
+    @Bean
+    public MeterBinder employeeCacheMetrics(CacheManager employeeCacheManager) {
+        return registry -> {
+            Cache<Object, Object> cache = employeeCacheManager.getCache(EMPLOYEE_REGION);
+            JCacheMetrics.monitor(registry, cache);
+        };
+    }
+}
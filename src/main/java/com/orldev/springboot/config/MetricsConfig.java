@@ -0,0 +1,23 @@
+package com.orldev.springboot.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//Metrics Boot does not bind on its own, the rest (http, repository, Hibernate, Hikari) is configured in application.properties
+@Configuration
+public class MetricsConfig {
+
+    //Same tag Boot puts on the hibernate.* session factory metrics
+    private static final String ENTITY_MANAGER_FACTORY = "entityManagerFactory";
+
+    //hibernate.query.executions, .execution.max, .execution.total and .cache.* per query string
+    @Bean
+    public MeterBinder hibernateQueryMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateQueryMetrics(entityManagerFactory.unwrap(SessionFactory.class), ENTITY_MANAGER_FACTORY, Tags.empty());
+    }
+}
@@ -0,0 +1,62 @@
+package com.orldev.springboot.config;
+
+import com.orldev.springboot.datasource.ReadYourWritesFilter;
+import com.orldev.springboot.datasource.ReplicaRoutingDataSource;
+import com.orldev.springboot.datasource.ReplicaSet;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Read/write splitting: replaces the auto-configured DataSource by one routing read-only transactions to replicas.
+//Every pool (primary included) is built by DataSourcePools.
+@Configuration
+@ConditionalOnProperty(name = "employees.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    //Also the "replicas" health contributor
+    @Bean
+    public ReplicaSet replicas(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                               @Value("${employees.replicas.urls:}") List<String> urls,
+                               @Value("${employees.replicas.health-check-interval:5s}") Duration healthCheckInterval,
+                               @Value("${employees.replicas.health-check-timeout:2s}") Duration healthCheckTimeout) {
+        HikariDataSource primary = DataSourcePools.hikari(ReplicaSet.PRIMARY, properties.determineUrl(), properties,
+                environment, meterRegistry);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            replicas.put(name, DataSourcePools.hikari(name, urls.get(i).strip(), properties, environment, meterRegistry));
+        }
+        ReplicaSet replicaSet = new ReplicaSet(primary, replicas, healthCheckTimeout, meterRegistry);
+        replicaSet.startHealthChecks(healthCheckInterval);
+        return replicaSet;
+    }
+
+    @Bean
+    public DataSource dataSource(ReplicaSet replicas) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicas));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${employees.replicas.read-your-writes-window:5s}") Duration window) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(window, Clock.systemUTC()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,116 @@
+package com.orldev.springboot.config;
+
+import com.orldev.springboot.index.EmailBloomFilter;
+import com.orldev.springboot.index.EmployeeNameIndex;
+import com.orldev.springboot.repository.EmployeeRepository;
+import com.orldev.springboot.service.impl.EmployeeServiceImpl;
+import com.orldev.springboot.shard.ShardConnectionProvider;
+import com.orldev.springboot.shard.ShardContext;
+import com.orldev.springboot.shard.ShardRouter;
+import com.orldev.springboot.shard.ShardSchemaMigrator;
+import com.orldev.springboot.shard.ShardTenantResolver;
+import com.orldev.springboot.shard.ShardedEmployeeService;
+import com.orldev.springboot.shard.ShardedSequenceGenerator;
+import com.orldev.springboot.sql.SqlStatementListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+//Horizontal sharding of the employees table: shard 0 is spring.datasource.url, employees.sharding.urls add the others.
+//Hibernate sees each shard as a tenant (database per tenant), ShardedEmployeeService picks the shard per call.
+@Configuration
+@ConditionalOnProperty(name = "employees.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    public ShardConnectionProvider shardConnectionProvider(DataSource dataSource, DataSourceProperties properties,
+                                                           Environment environment, MeterRegistry meterRegistry,
+                                                           @Value("${employees.sharding.urls:}") List<String> urls,
+                                                           @Value("${employees.sql-stats.enabled:true}") boolean sqlStats) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(dataSource);
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "shard-" + (i + 1);
+            DataSource shard = DataSourcePools.hikari(name, urls.get(i).strip(), properties, environment, meterRegistry);
+            //Not a bean, so SqlStatementConfig cannot wrap it
+            if(sqlStats){
+                shard = ProxyDataSourceBuilder.create(shard).name(name).listener(new SqlStatementListener()).build();
+            }
+            shards.add(shard);
+        }
+        return new ShardConnectionProvider(shards);
+    }
+
+    @Bean
+    public ShardRouter shardRouter(ShardConnectionProvider shardConnectionProvider) {
+        return new ShardRouter(shardConnectionProvider.getShardCount());
+    }
+
+    @Bean
+    public ShardSchemaMigrator shardSchemaMigrator() {
+        return new ShardSchemaMigrator();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardingHibernateProperties(ShardConnectionProvider shardConnectionProvider,
+                                                                     ShardRouter shardRouter,
+                                                                     ShardSchemaMigrator shardSchemaMigrator) {
+        return properties -> {
+            properties.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER, shardConnectionProvider);
+            properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new ShardTenantResolver());
+            properties.put(ShardedSequenceGenerator.SHARD_COUNT, shardRouter.getShardCount());
+            properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(shardSchemaMigrator));
+            //One Lucene index for all shards, documents carry their tenant; the mass indexer walks every listed tenant
+            properties.put("hibernate.search.backend.multi_tenancy.strategy", "discriminator");
+            properties.put("hibernate.search.multi_tenancy.tenant_ids",
+                    shardRouter.shards().mapToObj(Integer::toString).collect(Collectors.joining(",")));
+        };
+    }
+
+    //Runs once the EntityManagerFactory exists (shard 0 migrated) and before anything reads the other shards
+    @Bean
+    public SmartInitializingSingleton shardSchemaMigration(EntityManagerFactory entityManagerFactory,
+                                                           ShardSchemaMigrator shardSchemaMigrator,
+                                                           ShardRouter shardRouter) {
+        return () -> shardRouter.shards().filter(shard -> shard > 0).forEach(shardSchemaMigrator::migrate);
+    }
+
+    //The email filter and the name index load shard 0 on their own, add the rows of the other shards
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> shardIndexesLoader(ShardRouter shardRouter,
+                                                                         EmailBloomFilter emailBloomFilter,
+                                                                         EmployeeNameIndex employeeNameIndex) {
+        return event -> shardRouter.shards().filter(shard -> shard > 0).forEach(shard -> ShardContext.run(shard, () -> {
+            emailBloomFilter.rebuild();
+            employeeNameIndex.rebuild();
+        }));
+    }
+
+    @Bean
+    @Primary
+    public ShardedEmployeeService shardedEmployeeService(EmployeeServiceImpl employeeServiceImpl,
+                                                         EmployeeRepository employeeRepository,
+                                                         EmployeeNameIndex employeeNameIndex, ShardRouter shardRouter) {
+        return new ShardedEmployeeService(employeeServiceImpl, employeeRepository, employeeNameIndex, shardRouter);
+    }
+}
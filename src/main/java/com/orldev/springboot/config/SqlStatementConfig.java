@@ -0,0 +1,48 @@
+package com.orldev.springboot.config;
+
+import com.orldev.springboot.sql.SqlStatementFilter;
+import com.orldev.springboot.sql.SqlStatementListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+//Per-request SQL statement counting: every DataSource is wrapped in a datasource-proxy reporting to SqlStatementFilter
+@Configuration
+@ConditionalOnProperty(name = "employees.sql-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlStatementDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if(bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)){
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new SqlStatementListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatementFilter> sqlStatementFilter(MeterRegistry meterRegistry,
+                                                                         @Value("${employees.sql-stats.response-headers:false}") boolean responseHeaders,
+                                                                         @Value("${employees.sql-stats.n-plus-one-threshold:5}") int nPlusOneThreshold) {
+        FilterRegistrationBean<SqlStatementFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatementFilter(meterRegistry, responseHeaders, nPlusOneThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,127 @@
+package com.orldev.springboot.config;
+
+import com.orldev.springboot.datasource.ReplicaSet;
+import com.orldev.springboot.shard.ShardConnectionProvider;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+//Guardrails for spring.threads.virtual.enabled=true (see application-virtual-threads.properties).
+//Tomcat, @Async and MVC async (the export stream) already run on virtual threads through Boot's auto-configuration.
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    public VirtualThreadsConfig() {
+        checkJavaVersion(Runtime.version());
+    }
+
+    static void checkJavaVersion(Runtime.Version version) {
+        if(version.feature() < 21){
+            throw new IllegalStateException("spring.threads.virtual.enabled requires Java 21, running on " + version);
+        }
+    }
+
+    //With no thread-pool limit the connection pools are the real concurrency limit, so each has to fail fast.
+    //The routed DataSource of read replicas hides its pools, they are taken from the ReplicaSet and the shards.
+    @Bean
+    public SmartInitializingSingleton virtualThreadsPoolCheck(DataSource dataSource,
+                                                              ObjectProvider<ReplicaSet> replicas,
+                                                              ObjectProvider<ShardConnectionProvider> shards,
+                                                              @Value("${employees.virtual-threads.max-connection-timeout:5s}") Duration maxConnectionTimeout) {
+        return () -> checkPools(hikariPools(dataSource, replicas.getIfAvailable(), shards.getIfAvailable()),
+                maxConnectionTimeout);
+    }
+
+    //Every distinct Hikari pool of the application; unwrapping through the MXBean interface also reaches
+    //pools behind datasource-proxy, which the class-only overload skips. Replicas and shards may be null
+    static List<HikariDataSource> hikariPools(DataSource dataSource, ReplicaSet replicas, ShardConnectionProvider shards) {
+        List<DataSource> dataSources = new ArrayList<>();
+        dataSources.add(dataSource);
+        if(replicas != null){
+            dataSources.add(replicas.getPrimary());
+            dataSources.addAll(replicas.getReplicas().values());
+        }
+        if(shards != null){
+            dataSources.addAll(shards.getShards());
+        }
+        Set<HikariDataSource> pools = new LinkedHashSet<>();
+        for (DataSource candidate : dataSources) {
+            HikariDataSource hikari = DataSourceUnwrapper.unwrap(candidate, HikariConfigMXBean.class, HikariDataSource.class);
+            if(hikari != null){
+                pools.add(hikari);
+            }
+        }
+        return List.copyOf(pools);
+    }
+
+    //Returns the names of the pools whose connection-timeout is above maxConnectionTimeout
+    static List<String> checkPools(List<HikariDataSource> pools, Duration maxConnectionTimeout) {
+        if(pools.isEmpty()){
+            log.warn("Virtual threads enabled but no Hikari pool was found, database concurrency is not checked");
+            return List.of();
+        }
+        List<String> slow = new ArrayList<>();
+        for (HikariDataSource pool : pools) {
+            if(pool.getConnectionTimeout() > maxConnectionTimeout.toMillis()){
+                slow.add(pool.getPoolName());
+                log.warn("Hikari pool {} connection-timeout is {} ms: under virtual threads excess requests park for that long "
+                                + "instead of being rejected, keep it at or below {} ms", pool.getPoolName(),
+                        pool.getConnectionTimeout(), maxConnectionTimeout.toMillis());
+            }
+            log.info("Virtual threads enabled, database concurrency on pool {} is bounded by Hikari maximum-pool-size={}",
+                    pool.getPoolName(), pool.getMaximumPoolSize());
+        }
+        return slow;
+    }
+
+    //Reports virtual threads pinned to their carrier (e.g. blocking inside synchronized) through JFR
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "employees.virtual-threads.pinning-detection", havingValue = "true", matchIfMissing = true)
+    public RecordingStream virtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                                       @Value("${employees.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+        Counter pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+        RecordingStream stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", event -> {
+            pinned.increment();
+            log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), topFrames(event));
+        });
+        stream.startAsync();
+        return stream;
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if(event.getStackTrace() == null){
+            return "<no stack trace>";
+        }
+        StringBuilder frames = new StringBuilder();
+        event.getStackTrace().getFrames().stream().limit(8).forEach(frame -> frames.append("\n\tat ")
+                .append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName())
+                .append(':').append(frame.getLineNumber()));
+        return frames.toString();
+    }
+}
@@ -1,55 +1,377 @@
 package com.orldev.springboot.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orldev.springboot.cache.EmployeeJsonCache;
+import com.orldev.springboot.cache.EmployeeListSnapshot;
+import com.orldev.springboot.datasource.ReplicaRoutingDataSource;
+import com.orldev.springboot.dto.EmployeeDeleteResult;
+import com.orldev.springboot.dto.EmployeeLookup;
+import com.orldev.springboot.dto.EmployeePage;
+import com.orldev.springboot.dto.EmployeeSearchHit;
+import com.orldev.springboot.dto.EmployeeSuggestion;
+import com.orldev.springboot.dto.EmployeeTableStats;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.dto.IngestStatus;
+import com.orldev.springboot.exception.ResourceConflictException;
 import com.orldev.springboot.exception.ResourceNotFoundException;
+import com.orldev.springboot.feed.EmployeeChangeFeed;
+import com.orldev.springboot.ingest.EmployeeIngestQueue;
 import com.orldev.springboot.model.Employee;
 import com.orldev.springboot.service.EmployeeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
+    static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private EmployeeIngestQueue employeeIngestQueue;
+
+    @Autowired
+    private EmployeeJsonCache employeeJsonCache;
+
+    @Autowired
+    private EmployeeListSnapshot employeeListSnapshot;
+
+    @Autowired
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Employee createEmployee(@RequestBody Employee employee){
         return employeeService.saveEmployee(employee);
     }
 
+    //Write-behind variant for bulk syncs: 202 with the status location, 503 while the queue is full.
+    //Without the ingest queue the preference is ignored and the employee is created synchronously.
+    @PostMapping(headers = "Prefer=respond-async")
+    public ResponseEntity<?> ingestEmployee(@RequestBody Employee employee){
+        if(!employeeIngestQueue.isEnabled()){
+            return ResponseEntity.status(HttpStatus.CREATED).body(employeeService.saveEmployee(employee));
+        }
+        return employeeIngestQueue.submit(employee)
+                .<ResponseEntity<?>>map(status -> ResponseEntity.accepted()
+                        .location(URI.create("/api/employees/ingest/" + status.trackingId()))
+                        .header(PREFERENCE_APPLIED, "respond-async")
+                        .body(status))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, employeeIngestQueue.getRetryAfter().toSeconds())))
+                        .build());
+    }
+
+    @GetMapping("ingest/{trackingId}")
+    public ResponseEntity<IngestStatus> getIngestStatus(@PathVariable String trackingId){
+        return employeeIngestQueue.getStatus(trackingId).map(ResponseEntity::ok)
+                .orElseGet(()->ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<Employee> createEmployees(@RequestBody List<Employee> employees){
+        return employeeService.saveEmployees(employees);
+    }
+
     @GetMapping
-    public List<Employee> getAllEmployees(){
-        return employeeService.getAllEmployees();
+    public ResponseEntity<?> getAllEmployees(WebRequest request){
+        EmployeeTableStats stats = employeeService.getEmployeeTableStats();
+        String etag = etag(stats);
+        if(request.checkNotModified(etag)){
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        //JSON clients get the pre-encoded snapshot, tagged with the stats it was built from
+        if(employeeListSnapshot.isEnabled() && !ReplicaRoutingDataSource.isPinnedToPrimary() && acceptsJson(request)){
+            EmployeeListSnapshot.Body body = employeeListSnapshot.current(stats);
+            return ResponseEntity.ok().eTag(etag(body.getStats())).contentType(MediaType.APPLICATION_JSON).body(body);
+        }
+        return ResponseEntity.ok().eTag(etag).body(employeeService.getAllEmployees());
+    }
+
+    //Multi-get: one entry per requested id, in request order, with found=false for ids without a row
+    @GetMapping(params = "ids")
+    public List<EmployeeLookup> getEmployeesById(@RequestParam List<Long> ids){
+        Map<Long, EmployeeView> employees = employeeService.getEmployeesById(ids);
+        return ids.stream().map(id -> EmployeeLookup.of(id, employees.get(id))).toList();
+    }
+
+    //Keyset pagination, pass the returned nextCursor as "after" to fetch the following page
+    @GetMapping(params = "limit")
+    public ResponseEntity<EmployeePage> getEmployeesPage(@RequestParam(required = false) String after,
+                                                         @RequestParam int limit,
+                                                         @RequestParam(defaultValue = "id") String sort){
+        try{
+            return ResponseEntity.ok(employeeService.getEmployeesPage(after, limit, sort));
+        }catch (IllegalArgumentException e){
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    //Prefix search on first and/or last name, paginated with the same cursors as the list endpoint
+    @GetMapping("search")
+    public ResponseEntity<EmployeePage> searchEmployees(@RequestParam(required = false) String firstName,
+                                                        @RequestParam(required = false) String lastName,
+                                                        @RequestParam(required = false) String after,
+                                                        @RequestParam(defaultValue = "20") int limit){
+        try{
+            return ResponseEntity.ok(employeeService.searchEmployees(firstName, lastName, after, limit));
+        }catch (IllegalArgumentException e){
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    //Type-ahead suggestions matching the prefix against first or last name
+    @GetMapping("autocomplete")
+    public ResponseEntity<List<EmployeeSuggestion>> autocomplete(@RequestParam String prefix,
+                                                                 @RequestParam(defaultValue = "10") int limit){
+        try{
+            return ResponseEntity.ok(employeeService.suggestEmployees(prefix, limit));
+        }catch (IllegalArgumentException e){
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    //Typo-tolerant search over names and email, best matches first
+    @GetMapping("fulltext")
+    public ResponseEntity<List<EmployeeSearchHit>> fullTextSearch(@RequestParam String q,
+                                                                  @RequestParam(defaultValue = "20") int limit){
+        try{
+            return ResponseEntity.ok(employeeService.fullTextSearch(q, limit));
+        }catch (IllegalArgumentException e){
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    //Rebuilds the full-text index from the table in the background
+    @PostMapping("fulltext/reindex")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void reindexFullText(){
+        employeeService.reindexFullText();
+    }
+
+    //Streams every employee as newline-delimited JSON without materializing the table
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEmployees(){
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.setRootValueSeparator(null);
+            employeeService.exportEmployees(employee -> {
+                try {
+                    generator.writeObject(employee);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    //Committed changes as Server-Sent Events, instead of polling the list. Last-Event-ID resumes after that event;
+    //a "reset" event means it could not be resumed: reload the list, then keep reading.
+    @GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId){
+        if(!employeeChangeFeed.isEnabled()){
+            return ResponseEntity.notFound().build();
+        }
+        return employeeChangeFeed.subscribe(lastEventId)
+                .map(emitter -> ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(emitter))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, employeeChangeFeed.getRetryAfter().toSeconds())))
+                        .build());
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployee(@PathVariable Long id){
-        return employeeService.getEmployeeById(id).map(ResponseEntity::ok)
+    public ResponseEntity<?> getEmployee(@PathVariable Long id, WebRequest request){
+        //Clients that wrote recently skip the cached bytes, they may predate a write made through another node
+        boolean useJsonCache = employeeJsonCache.isEnabled() && !ReplicaRoutingDataSource.isPinnedToPrimary();
+        Optional<EmployeeJsonCache.Entry> cached = useJsonCache ? employeeJsonCache.getIfPresent(id) : Optional.empty();
+        //Revalidations are answered from the version alone, without loading or serializing the row
+        if(request.getHeader(HttpHeaders.IF_NONE_MATCH) != null){
+            Optional<Long> version = cached.isPresent()
+                    ? cached.map(EmployeeJsonCache.Entry::version) : employeeService.getEmployeeVersion(id);
+            if(version.isEmpty()){
+                return ResponseEntity.notFound().build();
+            }
+            if(request.checkNotModified(etag(version.get()))){
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag(version.get())).build();
+            }
+        }
+        //JSON bodies are written as the cached bytes, other formats are encoded per request
+        if(useJsonCache && acceptsJson(request)){
+            return cached.or(() -> employeeJsonCache.get(id, employeeService::getEmployeeById))
+                    .<ResponseEntity<?>>map(entry -> withValidators(entry, request))
+                    .orElseGet(()->ResponseEntity.notFound().build());
+        }
+        return employeeService.getEmployeeById(id).map(this::withValidators)
                 .orElseGet(()->ResponseEntity.notFound().build());
     }
 
+    //If-Match (or a version in the body) turns the update into an optimistic one answered with 409 on conflict;
+    //an email another employee has is a conflict too (DuplicateEmailException), not a missing employee
     @PutMapping("{id}")
-    public ResponseEntity<Employee> updateEmployee(@PathVariable Long id, @RequestBody Employee employee) {
+    public ResponseEntity<Employee> updateEmployee(@PathVariable Long id, @RequestBody Employee employee,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try{
+            if(ifMatch != null){
+                employee.setVersion(parseETag(ifMatch));
+            }
+            return employeeService.updateEmployee(id, employee).map(this::withValidators)
+                    .orElseGet(()->ResponseEntity.notFound().build());
+        }catch (ResourceNotFoundException e){
+            return ResponseEntity.notFound().build();
+        }catch (ResourceConflictException e){
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }catch (IllegalArgumentException e){
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    //JSON Merge Patch (RFC 7396), only the members present in the body are written
+    @PatchMapping(value = "{id}", consumes = MERGE_PATCH_JSON_VALUE)
+    public ResponseEntity<Employee> patchEmployee(@PathVariable Long id, @RequestBody Map<String, Object> patch,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try{
-            Optional<Employee> updatedEmployee = employeeService.updateEmployee(id, employee);
-            return ResponseEntity.ok(updatedEmployee.get());
+            Long expectedVersion = ifMatch == null ? null : parseETag(ifMatch);
+            return employeeService.patchEmployee(id, patch, expectedVersion).map(this::withValidators)
+                    .orElseGet(()->ResponseEntity.notFound().build());
         }catch (ResourceNotFoundException e){
             return ResponseEntity.notFound().build();
+        }catch (ResourceConflictException e){
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }catch (IllegalArgumentException e){
+            return ResponseEntity.badRequest().build();
         }
     }
 
     @DeleteMapping("{id}")
-    public ResponseEntity<String> deleteEmployee(@PathVariable Long id){
-        employeeService.deleteEmployee(id);
-        return ResponseEntity.ok("Employee deleted successfully");
+    public ResponseEntity<Void> deleteEmployee(@PathVariable Long id){
+        if(!employeeService.deleteEmployee(id)){
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
     }
 
+    @DeleteMapping(params = "ids")
+    public EmployeeDeleteResult deleteEmployees(@RequestParam List<Long> ids){
+        return employeeService.deleteEmployees(ids);
+    }
 
+    private ResponseEntity<Employee> withValidators(Employee employee){
+        return validators(employee.getVersion(), employee.getLastModified()).body(employee);
+    }
 
+    private ResponseEntity<EmployeeView> withValidators(EmployeeView employee){
+        return validators(employee.version(), employee.lastModified()).body(employee);
+    }
+
+    private static ResponseEntity<byte[]> withValidators(EmployeeJsonCache.Entry entry, WebRequest request){
+        ResponseEntity.BodyBuilder builder = validators(entry.version(), entry.lastModified())
+                .contentType(MediaType.APPLICATION_JSON);
+        if(entry.gzip() == null){
+            return builder.body(entry.json());
+        }
+        builder.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if(acceptsGzip(request)){
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzip());
+        }
+        return builder.body(entry.json());
+    }
+
+    private static ResponseEntity.BodyBuilder validators(Long version, Instant lastModified){
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if(version != null){
+            builder.eTag(etag(version));
+        }
+        if(lastModified != null){
+            builder.lastModified(lastModified);
+        }
+        return builder;
+    }
+
+    //"*" matches any current version, so it is treated like an unconditional update
+    private static Long parseETag(String ifMatch){
+        String value = ifMatch.trim();
+        if(value.equals("*")){
+            return null;
+        }
+        if(value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")){
+            throw new IllegalArgumentException("If-Match must be a strong ETag: " + ifMatch);
+        }
+        return Long.parseLong(value.substring(1, value.length() - 1));
+    }
+
+    private static String etag(Long version){
+        return "\"" + version + "\"";
+    }
+
+    //Weak validator: any insert, update or delete changes the row count, max id or max timestamp
+    private static String etag(EmployeeTableStats stats){
+        return "W/\"" + stats.count() + "-" + stats.maxId() + "-"
+                + (stats.lastModified() == null ? 0 : stats.lastModified().toEpochMilli()) + "\"";
+    }
+
+    //True when JSON is what content negotiation would pick: no Accept header, or a most preferred type
+    //(highest quality, concrete before wildcard) that includes application/json
+    private static boolean acceptsJson(WebRequest request){
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if(accept == null){
+            return true;
+        }
+        MediaType preferred = null;
+        try{
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                double quality = type.getQualityValue();
+                if(quality > 0 && (preferred == null || quality > preferred.getQualityValue()
+                        || quality == preferred.getQualityValue() && preferred.isWildcardSubtype() && !type.isWildcardSubtype())){
+                    preferred = type;
+                }
+            }
+        }catch (InvalidMediaTypeException e){
+            return false;
+        }
+        return preferred != null && preferred.includes(MediaType.APPLICATION_JSON);
+    }
+
+    private static boolean acceptsGzip(WebRequest request){
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if(acceptEncoding == null){
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean refused = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+            if((name.equalsIgnoreCase("gzip") || name.equals("*")) && !refused){
+                return true;
+            }
+        }
+        return false;
+    }
 }
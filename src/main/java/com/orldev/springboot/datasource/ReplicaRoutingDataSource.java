@@ -0,0 +1,46 @@
+package com.orldev.springboot.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+//Sends read-only transactions to a replica of the ReplicaSet and everything else to the primary.
+//Must sit behind a LazyConnectionDataSourceProxy: the read-only flag is only set once the transaction has begun.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    //Set for the requests of a client that wrote recently (see ReadYourWritesFilter)
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final ReplicaSet replicaSet;
+
+    public ReplicaRoutingDataSource(ReplicaSet replicaSet) {
+        this.replicaSet = replicaSet;
+        Map<Object, Object> targets = new HashMap<>(replicaSet.getReplicas());
+        targets.put(ReplicaSet.PRIMARY, replicaSet.getPrimary());
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(replicaSet.getPrimary());
+        afterPropertiesSet();
+    }
+
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || isPinnedToPrimary()){
+            return ReplicaSet.PRIMARY;
+        }
+        return replicaSet.nextReplica().orElse(ReplicaSet.PRIMARY);
+    }
+}
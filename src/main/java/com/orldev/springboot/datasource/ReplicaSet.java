@@ -0,0 +1,124 @@
+package com.orldev.springboot.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//The primary and its read replicas. Replicas are probed in the background and reads are spread round robin
+//over the ones that answered the last probe; with none left, reads fall back to the primary.
+public class ReplicaSet implements HealthIndicator, AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaSet.class);
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final int checkTimeoutSeconds;
+    private final Map<String, Boolean> healthy = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthyReplicas = List.of();
+    private ScheduledExecutorService checker;
+
+    public ReplicaSet(DataSource primary, Map<String, DataSource> replicas, Duration checkTimeout, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.checkTimeoutSeconds = (int) Math.max(1, checkTimeout.toSeconds());
+        Gauge.builder("employees.replicas.healthy", this, replicaSet -> replicaSet.healthyReplicas.size())
+                .description("Read replicas currently receiving read-only transactions")
+                .register(meterRegistry);
+        checkNow();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    //Name of the replica for the next read, empty when every replica is down
+    public Optional<String> nextReplica() {
+        List<String> candidates = healthyReplicas;
+        if(candidates.isEmpty()){
+            return Optional.empty();
+        }
+        return Optional.of(candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size())));
+    }
+
+    public synchronized void startHealthChecks(Duration interval) {
+        if(checker != null || replicas.isEmpty()){
+            return;
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkNow, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkNow() {
+        List<String> up = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> {
+            boolean valid = isValid(dataSource);
+            Boolean previous = healthy.put(name, valid);
+            if(previous != null && previous != valid){
+                log.warn("Read replica {} is now {}", name, valid ? "UP, receiving reads again" : "DOWN, reads skip it");
+            }
+            if(valid){
+                up.add(name);
+            }
+        });
+        healthyReplicas = List.copyOf(up);
+    }
+
+    private boolean isValid(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.isValid(checkTimeoutSeconds);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    //Stays UP while any replica is down since the primary takes over their reads, the details tell which ones
+    @Override
+    public Health health() {
+        Health.Builder builder = Health.up().withDetail("healthy", healthyReplicas.size() + "/" + replicas.size());
+        replicas.keySet().forEach(name -> builder.withDetail(name, healthy.getOrDefault(name, false) ? "UP" : "DOWN"));
+        return builder.build();
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if(checker != null){
+            checker.shutdownNow();
+        }
+        for (DataSource dataSource : replicas.values()) {
+            if(dataSource instanceof AutoCloseable closeable){
+                closeable.close();
+            }
+        }
+        if(primary instanceof AutoCloseable closeable){
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.orldev.springboot.dto;
+
+import com.orldev.springboot.event.EmployeeEvent;
+
+import java.time.Instant;
+
+//Data of one change feed event; employee is the committed row, null for deletes
+public record EmployeeChange(EmployeeEvent.Type type, Long id, EmployeeView employee, Instant committedAt) {
+}
@@ -0,0 +1,28 @@
+package com.orldev.springboot.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+//Opaque keyset position: the sort key plus the (value, id) of the last row of a page
+public record EmployeeCursor(EmployeeSortKey sortKey, String value, Long id) {
+
+    private static final String SEPARATOR = ":";
+
+    public String encode() {
+        String raw = sortKey.name() + SEPARATOR + id + SEPARATOR + (value == null ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EmployeeCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor);
+            }
+            return new EmployeeCursor(EmployeeSortKey.valueOf(parts[0]), parts[2], Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+    }
+}
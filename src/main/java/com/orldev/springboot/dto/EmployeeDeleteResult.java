@@ -0,0 +1,5 @@
+package com.orldev.springboot.dto;
+
+//Outcome of a bulk delete, ids that did not exist are counted in requested but not in deleted
+public record EmployeeDeleteResult(int requested, int deleted) {
+}
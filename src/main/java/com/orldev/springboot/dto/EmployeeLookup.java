@@ -0,0 +1,9 @@
+package com.orldev.springboot.dto;
+
+//One entry of a multi-get, in request order; employee is null when no row has the id
+public record EmployeeLookup(Long id, boolean found, EmployeeView employee) {
+
+    public static EmployeeLookup of(Long id, EmployeeView employee) {
+        return new EmployeeLookup(id, employee != null, employee);
+    }
+}
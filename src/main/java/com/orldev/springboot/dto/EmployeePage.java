@@ -0,0 +1,7 @@
+package com.orldev.springboot.dto;
+
+import java.util.List;
+
+//One keyset page, nextCursor is null when there are no more rows
+public record EmployeePage(List<EmployeeView> employees, String nextCursor) {
+}
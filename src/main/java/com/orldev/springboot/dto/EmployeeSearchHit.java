@@ -0,0 +1,5 @@
+package com.orldev.springboot.dto;
+
+//Full-text match, projected from the index (no database read); higher score is a closer match
+public record EmployeeSearchHit(Long id, String firstName, String lastName, String email, float score) {
+}
@@ -0,0 +1,27 @@
+package com.orldev.springboot.dto;
+
+import java.util.Arrays;
+
+//Whitelisted sort keys for keyset pagination, each one is backed by a (column, id) index
+public enum EmployeeSortKey {
+    ID("id"),
+    FIRST_NAME("firstName"),
+    LAST_NAME("lastName");
+
+    private final String param;
+
+    EmployeeSortKey(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public static EmployeeSortKey fromParam(String param) {
+        return Arrays.stream(values())
+                .filter(key -> key.param.equals(param))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort key: " + param));
+    }
+}
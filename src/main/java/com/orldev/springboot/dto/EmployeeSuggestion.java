@@ -0,0 +1,5 @@
+package com.orldev.springboot.dto;
+
+//Autocomplete entry, just enough to render "First Last" and link to the employee
+public record EmployeeSuggestion(Long id, String firstName, String lastName) {
+}
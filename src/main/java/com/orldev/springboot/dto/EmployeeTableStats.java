@@ -0,0 +1,7 @@
+package com.orldev.springboot.dto;
+
+import java.time.Instant;
+
+//Cheap summary of the employees table used as a validator for the full list
+public record EmployeeTableStats(Long count, Long maxId, Instant lastModified) {
+}
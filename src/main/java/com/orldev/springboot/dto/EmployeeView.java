@@ -0,0 +1,15 @@
+package com.orldev.springboot.dto;
+
+import com.orldev.springboot.model.Employee;
+
+import java.time.Instant;
+
+//Read-only employee row for GET responses, built by JPQL constructor expressions so it never enters the
+//persistence context (no entity instance, no dirty-checking snapshot). Serializes like Employee.
+public record EmployeeView(Long id, String firstName, String lastName, String email, Long version, Instant lastModified) {
+
+    public static EmployeeView of(Employee employee) {
+        return new EmployeeView(employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail(),
+                employee.getVersion(), employee.getLastModified());
+    }
+}
@@ -0,0 +1,34 @@
+package com.orldev.springboot.dto;
+
+import java.time.Instant;
+
+//Outcome of an asynchronously accepted employee, polled with its tracking id
+public record IngestStatus(String trackingId, State state, Long employeeId, String error,
+                           Instant acceptedAt, Instant completedAt) {
+
+    public enum State {
+        //Waiting in the queue or in a batch being written
+        QUEUED,
+        SAVED,
+        //The email already exists, retrying will not help
+        REJECTED,
+        //Any other error, the employee may be submitted again
+        FAILED
+    }
+
+    public static IngestStatus queued(String trackingId, Instant acceptedAt) {
+        return new IngestStatus(trackingId, State.QUEUED, null, null, acceptedAt, null);
+    }
+
+    public IngestStatus saved(Long employeeId, Instant completedAt) {
+        return new IngestStatus(trackingId, State.SAVED, employeeId, null, acceptedAt, completedAt);
+    }
+
+    public IngestStatus rejected(String error, Instant completedAt) {
+        return new IngestStatus(trackingId, State.REJECTED, null, error, acceptedAt, completedAt);
+    }
+
+    public IngestStatus failed(String error, Instant completedAt) {
+        return new IngestStatus(trackingId, State.FAILED, null, error, acceptedAt, completedAt);
+    }
+}
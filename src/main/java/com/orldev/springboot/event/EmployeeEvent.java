@@ -0,0 +1,22 @@
+package com.orldev.springboot.event;
+
+import com.orldev.springboot.model.Employee;
+
+//Published by EmployeeService for every written row; listeners should use @TransactionalEventListener to see committed data only
+public record EmployeeEvent(Type type, Long id, Employee employee) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static EmployeeEvent created(Employee employee) {
+        return new EmployeeEvent(Type.CREATED, employee.getId(), employee);
+    }
+
+    public static EmployeeEvent updated(Employee employee) {
+        return new EmployeeEvent(Type.UPDATED, employee.getId(), employee);
+    }
+
+    //No row state is carried for deletes
+    public static EmployeeEvent deleted(Long id) {
+        return new EmployeeEvent(Type.DELETED, id, null);
+    }
+}
@@ -0,0 +1,13 @@
+package com.orldev.springboot.exception;
+
+//An update that would give an employee an email another one already has
+public class DuplicateEmailException extends ResourceConflictException{
+
+    public DuplicateEmailException(String message){
+        super(message);
+    }
+
+    public DuplicateEmailException(String message, Throwable cause){
+        super(message, cause);
+    }
+}
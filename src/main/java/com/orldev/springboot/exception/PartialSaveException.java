@@ -0,0 +1,22 @@
+package com.orldev.springboot.exception;
+
+import com.orldev.springboot.model.Employee;
+
+import java.util.Collections;
+import java.util.List;
+
+//A batch save that committed some of its rows before failing (each shard commits on its own).
+//savedEmployees follows the order of the batch, null for every row that was not saved.
+public class PartialSaveException extends RuntimeException{
+
+    private final transient List<Employee> savedEmployees;
+
+    public PartialSaveException(String message, List<Employee> savedEmployees, Throwable cause){
+        super(message, cause);
+        this.savedEmployees = Collections.unmodifiableList(savedEmployees);
+    }
+
+    public List<Employee> getSavedEmployees() {
+        return savedEmployees;
+    }
+}
@@ -0,0 +1,343 @@
+package com.orldev.springboot.feed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orldev.springboot.dto.EmployeeChange;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.event.EmployeeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+//Committed creates, updates and deletes pushed to GET /api/employees/changes subscribers as Server-Sent Events.
+//Events are named after the change type and carry ids "<epoch>-<sequence>"; the last replay-size of them are kept,
+//so a reconnect with Last-Event-ID is replayed from there, or gets a "reset" event (reload, then keep reading) when
+//the ring no longer covers it or it comes from another process. Every subscriber has buffer-size events of room and
+//its own sender task: a subscriber that falls that far behind is disconnected (and may resume), committing threads
+//never wait on a client.
+@Component
+public class EmployeeChangeFeed implements SmartLifecycle {
+
+    public static final String RESET_EVENT = "reset";
+
+    //Comment line that keeps idle connections open through proxies
+    private static final Change HEARTBEAT = new Change(-1, null, null);
+
+    private final boolean enabled;
+    private final int replaySize;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final Duration heartbeatInterval;
+    private final Duration retryAfter;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    //Ids of an earlier process never match this one's sequences
+    private final String epoch;
+    private final ExecutorService sender;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter published;
+    private final Counter slowConsumers;
+    private final Counter resets;
+    private final Counter rejected;
+
+    //Guarded by lock, which also orders every subscriber's events by sequence
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Change> ring;
+    private long lastSequence;
+
+    private volatile boolean running;
+    private ScheduledExecutorService heartbeats;
+
+    //One committed change as sent, data already encoded
+    record Change(long sequence, String name, String data) {
+    }
+
+    public EmployeeChangeFeed(@Value("${employees.change-feed.enabled:true}") boolean enabled,
+                              @Value("${employees.change-feed.replay-size:1000}") int replaySize,
+                              @Value("${employees.change-feed.buffer-size:256}") int bufferSize,
+                              @Value("${employees.change-feed.max-subscribers:1000}") int maxSubscribers,
+                              @Value("${employees.change-feed.timeout:30m}") Duration timeout,
+                              @Value("${employees.change-feed.heartbeat:15s}") Duration heartbeatInterval,
+                              @Value("${employees.change-feed.retry-after:5s}") Duration retryAfter,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        if(replaySize < 1 || bufferSize < 1){
+            throw new IllegalArgumentException("Change feed replay-size and buffer-size must be positive");
+        }
+        this.enabled = enabled;
+        this.replaySize = replaySize;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.heartbeatInterval = heartbeatInterval;
+        this.retryAfter = retryAfter;
+        this.objectMapper = objectMapper;
+        this.clock = Clock.systemUTC();
+        this.epoch = Long.toString(clock.millis());
+        this.ring = new ArrayDeque<>(replaySize);
+        AtomicInteger threads = new AtomicInteger();
+        //Not bounded: a sender blocked on a stalled client must not hold back the others, max-subscribers bounds it
+        this.sender = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "employee-change-feed-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.published = Counter.builder("employees.change.feed.events")
+                .description("Committed employee changes published to the change feed").register(meterRegistry);
+        this.slowConsumers = Counter.builder("employees.change.feed.disconnects").tag("reason", "slow-consumer")
+                .description("Change feed subscribers disconnected because their buffer was full").register(meterRegistry);
+        this.resets = Counter.builder("employees.change.feed.resets")
+                .description("Change feed resumes the replay ring could not serve").register(meterRegistry);
+        this.rejected = Counter.builder("employees.change.feed.rejected")
+                .description("Change feed subscriptions refused at max-subscribers").register(meterRegistry);
+        Gauge.builder("employees.change.feed.subscribers", subscribers, Set::size)
+                .description("Open change feed subscriptions").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    //Empty at max-subscribers (or shutting down), the caller should retry later.
+    //Without lastEventId only changes committed from now on are sent.
+    public Optional<SseEmitter> subscribe(String lastEventId) {
+        return subscribe(new SseEmitter(timeout.toMillis()), lastEventId);
+    }
+
+    Optional<SseEmitter> subscribe(SseEmitter emitter, String lastEventId) {
+        if(!running){
+            rejected.increment();
+            return Optional.empty();
+        }
+        Subscriber subscriber;
+        lock.lock();
+        try {
+            if(subscribers.size() >= maxSubscribers){
+                rejected.increment();
+                return Optional.empty();
+            }
+            //Taken under the lock with the registration, so no event is missed or sent twice
+            List<Change> replay = lastEventId == null ? List.of() : replaySince(lastEventId);
+            if(replay == null){
+                resets.increment();
+                replay = List.of(new Change(lastSequence, RESET_EVENT, "{}"));
+            }
+            subscriber = new Subscriber(emitter, replay.iterator());
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        emitter.onTimeout(subscriber::finish);
+        subscriber.schedule();
+        return Optional.of(emitter);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent(EmployeeEvent event) {
+        if(!enabled){
+            return;
+        }
+        EmployeeView employee = event.employee() == null ? null : EmployeeView.of(event.employee());
+        String data = encode(new EmployeeChange(event.type(), event.id(), employee, clock.instant()));
+        String name = event.type().name().toLowerCase(Locale.ROOT);
+        lock.lock();
+        try {
+            Change change = new Change(++lastSequence, name, data);
+            if(ring.size() == replaySize){
+                ring.removeFirst();
+            }
+            ring.addLast(change);
+            subscribers.forEach(subscriber -> subscriber.offer(change));
+        } finally {
+            lock.unlock();
+        }
+        published.increment();
+    }
+
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    //Changes after lastEventId, null when the ring cannot tell which ones the subscriber missed
+    private List<Change> replaySince(String lastEventId) {
+        int dash = lastEventId.lastIndexOf('-');
+        if(dash < 0 || !epoch.equals(lastEventId.substring(0, dash))){
+            return null;
+        }
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long oldest = ring.isEmpty() ? lastSequence + 1 : ring.peekFirst().sequence();
+        if(last > lastSequence || last < oldest - 1){
+            return null;
+        }
+        return ring.stream().filter(change -> change.sequence() > last).toList();
+    }
+
+    private String encode(EmployeeChange change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Employee change could not be encoded, id: " + change.id(), e);
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Change> buffer = new ArrayBlockingQueue<>(bufferSize);
+        //Sent ahead of the buffer, read by the sender task only
+        private final Iterator<Change> replay;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean finishing;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, Iterator<Change> replay) {
+            this.emitter = emitter;
+            this.replay = replay;
+        }
+
+        private void offer(Change change) {
+            if(finishing || closed){
+                return;
+            }
+            if(!buffer.offer(change)){
+                slowConsumers.increment();
+                finish();
+                return;
+            }
+            schedule();
+        }
+
+        private void heartbeat() {
+            if(!finishing && !closed && buffer.isEmpty() && buffer.offer(HEARTBEAT)){
+                schedule();
+            }
+        }
+
+        //Completes the response from the sender task, which may be blocked writing to this client
+        private void finish() {
+            finishing = true;
+            buffer.clear();
+            schedule();
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+            buffer.clear();
+        }
+
+        private void schedule() {
+            if(!scheduled.compareAndSet(false, true)){
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    if(finishing){
+                        close();
+                        emitter.complete();
+                        return;
+                    }
+                    Change change = replay.hasNext() ? replay.next() : buffer.poll();
+                    if(change != null){
+                        send(change);
+                        continue;
+                    }
+                    scheduled.set(false);
+                    //An offer between the poll and the reset above saw the task as still scheduled
+                    if((buffer.isEmpty() && !finishing) || !scheduled.compareAndSet(false, true)){
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                //Client gone, or the response was completed meanwhile
+                close();
+            }
+        }
+
+        private void send(Change change) throws IOException {
+            if(change == HEARTBEAT){
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }else{
+                emitter.send(SseEmitter.event().id(eventId(change.sequence())).name(change.name()).data(change.data()));
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if(!enabled){
+            return;
+        }
+        heartbeats = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "employee-change-feed-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = heartbeatInterval.toMillis();
+        heartbeats.scheduleAtFixedRate(() -> subscribers.forEach(Subscriber::heartbeat), interval, interval,
+                TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    //Ends every open stream, so the web server's graceful shutdown does not wait for them
+    @Override
+    public void stop() {
+        running = false;
+        if(heartbeats != null){
+            heartbeats.shutdownNow();
+            heartbeats = null;
+        }
+        subscribers.forEach(Subscriber::finish);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,145 @@
+package com.orldev.springboot.index;
+
+import com.orldev.springboot.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+//Probabilistic set of known emails: "false" means definitely new, "true" means a lookup is needed.
+//Deleted emails are never removed, they only raise the false positive rate until the next restart.
+@Component
+public class EmailBloomFilter {
+
+    private final boolean enabled;
+    private final EmployeeRepository employeeRepository;
+    private final int numBits;
+    private final int numHashes;
+    private final AtomicLongArray bits;
+    private final AtomicLong insertions = new AtomicLong();
+    private final AtomicLong positives = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final Counter negativeChecks;
+    private final Counter positiveChecks;
+    private final Counter falsePositiveChecks;
+
+    public EmailBloomFilter(@Value("${employees.email-filter.enabled:false}") boolean enabled,
+                            @Value("${employees.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${employees.email-filter.false-positive-probability:0.01}") double falsePositiveProbability,
+                            EmployeeRepository employeeRepository,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.employeeRepository = employeeRepository;
+        //Optimal sizing: m = -n ln(p) / (ln 2)^2 and k = m/n ln 2
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.numBits = enabled ? (int) Math.max(64, Math.min(optimalBits, Integer.MAX_VALUE - 63)) : 64;
+        this.numHashes = Math.max(1, (int) Math.round((double) optimalBits / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((numBits + 63) / 64);
+
+        this.negativeChecks = Counter.builder("employees.email.filter.checks").tag("result", "negative")
+                .description("Emails the filter reported as definitely new").register(meterRegistry);
+        this.positiveChecks = Counter.builder("employees.email.filter.checks").tag("result", "positive")
+                .description("Emails the filter reported as possibly known").register(meterRegistry);
+        this.falsePositiveChecks = Counter.builder("employees.email.filter.false.positives")
+                .description("Possibly known emails that the database lookup did not find").register(meterRegistry);
+        Gauge.builder("employees.email.filter.false.positive.rate", this, EmailBloomFilter::observedFalsePositiveRate)
+                .description("Share of positive checks that turned out to be new emails").register(meterRegistry);
+        Gauge.builder("employees.email.filter.expected.false.positive.rate", this, EmailBloomFilter::expectedFalsePositiveRate)
+                .description("Theoretical false positive rate for the current number of insertions").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    //Always false when disabled, so callers rely on the unique index alone
+    public boolean mightContain(String email) {
+        if(!enabled){
+            return false;
+        }
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            if((bits.get(bit >>> 6) & (1L << bit)) == 0){
+                negativeChecks.increment();
+                return false;
+            }
+        }
+        positiveChecks.increment();
+        positives.incrementAndGet();
+        return true;
+    }
+
+    //Reports the outcome of the lookup that followed a positive check
+    public void recordLookup(boolean found) {
+        if(!found){
+            falsePositiveChecks.increment();
+            falsePositives.incrementAndGet();
+        }
+    }
+
+    public void put(String email) {
+        if(!enabled){
+            return;
+        }
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                //retry until the bit is set
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if(!enabled){
+            return;
+        }
+        try (Stream<String> emails = employeeRepository.streamAllEmails()) {
+            emails.forEach(this::put);
+        }
+    }
+
+    double observedFalsePositiveRate() {
+        long checks = positives.get();
+        return checks == 0 ? 0.0 : (double) falsePositives.get() / checks;
+    }
+
+    double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) numHashes * insertions.get() / numBits), numHashes);
+    }
+
+    //64-bit FNV-1a with a murmur3 finalizer, split into two 32-bit hashes for double hashing
+    private static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : email.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,109 @@
+package com.orldev.springboot.index;
+
+import com.orldev.springboot.dto.EmployeeSearchHit;
+import com.orldev.springboot.event.EmployeeEvent;
+import com.orldev.springboot.model.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+//Fuzzy search over names and email backed by a local Lucene index (Hibernate Search).
+//Persisted entities are indexed by Hibernate Search itself; the bulk JPQL updates and deletes of EmployeeService
+//bypass it, so their EmployeeEvents are added to the indexing plan of the same transaction.
+@Component
+public class EmployeeFullTextIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeFullTextIndex.class);
+
+    //Typos allowed per term, 2 is the Lucene maximum
+    private static final int MAX_EDIT_DISTANCE = 2;
+    private static final float NAME_BOOST = 2f;
+
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int loadingThreads;
+    private final int loadingBatchSize;
+    private final boolean reindexOnStartup;
+
+    public EmployeeFullTextIndex(EntityManager entityManager,
+                                 EntityManagerFactory entityManagerFactory,
+                                 @Value("${employees.full-text.reindex.threads:2}") int loadingThreads,
+                                 @Value("${employees.full-text.reindex.batch-size:500}") int loadingBatchSize,
+                                 @Value("${employees.full-text.reindex-on-startup:false}") boolean reindexOnStartup) {
+        this.entityManager = entityManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.loadingThreads = loadingThreads;
+        this.loadingBatchSize = loadingBatchSize;
+        this.reindexOnStartup = reindexOnStartup;
+    }
+
+    //Hits come from projections only, so the session never borrows a JDBC connection
+    public List<EmployeeSearchHit> search(String text, int limit) {
+        try (EntityManager session = entityManagerFactory.createEntityManager()) {
+            return Search.session(session).search(Employee.class)
+                    .select(f -> f.composite()
+                            .from(f.id(Long.class),
+                                    f.field("firstName", String.class),
+                                    f.field("lastName", String.class),
+                                    f.field("email", String.class),
+                                    f.score())
+                            .asList(values -> new EmployeeSearchHit((Long) values.get(0), (String) values.get(1),
+                                    (String) values.get(2), (String) values.get(3), (Float) values.get(4))))
+                    .where(f -> f.match()
+                            .field("firstName").boost(NAME_BOOST)
+                            .field("lastName").boost(NAME_BOOST)
+                            .field("email")
+                            .matching(text)
+                            .fuzzy(MAX_EDIT_DISTANCE))
+                    .fetchHits(limit);
+        }
+    }
+
+    //Runs inside the writing transaction, the documents are committed to Lucene right after the database commit
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onEmployeeEvent(EmployeeEvent event) {
+        SearchIndexingPlan indexingPlan = Search.session(entityManager).indexingPlan();
+        switch (event.type()) {
+            case UPDATED -> indexingPlan.addOrUpdate(event.employee());
+            case DELETED -> indexingPlan.purge(Employee.class, event.id(), null);
+            //persisted entities are already in the plan
+            case CREATED -> { }
+        }
+    }
+
+    //Rebuilds the whole index from the table, e.g. after the index directory was lost or rows were written by hand
+    public CompletableFuture<?> reindex() {
+        log.info("Reindexing employees with {} loading threads, batches of {}", loadingThreads, loadingBatchSize);
+        return Search.mapping(entityManagerFactory).scope(Employee.class).massIndexer()
+                .threadsToLoadObjects(loadingThreads)
+                .batchSizeToLoadObjects(loadingBatchSize)
+                .start()
+                .toCompletableFuture()
+                .whenComplete((result, failure) -> {
+                    if(failure != null){
+                        log.error("Reindexing employees failed", failure);
+                    }else{
+                        log.info("Reindexing employees done");
+                    }
+                });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reindexOnStartup() {
+        if(reindexOnStartup){
+            reindex();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.orldev.springboot.index;
+
+import com.orldev.springboot.dto.EmployeeSuggestion;
+import com.orldev.springboot.event.EmployeeEvent;
+import com.orldev.springboot.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+//In-memory autocomplete over first and last names: a sorted map of "name\0id" keys, so a prefix is one range scan.
+//Kept in sync from committed EmployeeEvents; each node only sees its own writes until the next restart.
+@Component
+public class EmployeeNameIndex {
+
+    private static final char ID_SEPARATOR = '\u0000';
+
+    private final boolean enabled;
+    private final EmployeeRepository employeeRepository;
+    private final ConcurrentSkipListMap<String, EmployeeSuggestion> byName = new ConcurrentSkipListMap<>();
+    private final Map<Long, EmployeeSuggestion> byId = new ConcurrentHashMap<>();
+
+    public EmployeeNameIndex(@Value("${employees.name-index.enabled:true}") boolean enabled,
+                             EmployeeRepository employeeRepository,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.employeeRepository = employeeRepository;
+        Gauge.builder("employees.name.index.size", byId, Map::size)
+                .description("Employees held by the autocomplete index").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    //Matches the prefix against first or last name, case-insensitively, ordered by the matching name
+    public List<EmployeeSuggestion> suggest(String prefix, int limit) {
+        String from = normalize(prefix);
+        Map<Long, EmployeeSuggestion> matches = new LinkedHashMap<>();
+        for (EmployeeSuggestion suggestion : byName.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+            matches.putIfAbsent(suggestion.id(), suggestion);
+            if(matches.size() == limit){
+                break;
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    //Writers are serialized so the two name keys of an employee always change together
+    public synchronized void put(EmployeeSuggestion employee) {
+        if(!enabled){
+            return;
+        }
+        remove(employee.id());
+        byId.put(employee.id(), employee);
+        byName.put(key(employee.firstName(), employee.id()), employee);
+        byName.put(key(employee.lastName(), employee.id()), employee);
+    }
+
+    public synchronized void remove(Long id) {
+        EmployeeSuggestion previous = byId.remove(id);
+        if(previous != null){
+            byName.remove(key(previous.firstName(), id));
+            byName.remove(key(previous.lastName(), id));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent(EmployeeEvent event) {
+        if(event.type() == EmployeeEvent.Type.DELETED){
+            remove(event.id());
+        }else{
+            put(new EmployeeSuggestion(event.id(), event.employee().getFirstName(), event.employee().getLastName()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if(!enabled){
+            return;
+        }
+        try (Stream<EmployeeSuggestion> names = employeeRepository.streamAllNames()) {
+            names.forEach(this::put);
+        }
+    }
+
+    private static String key(String name, Long id) {
+        return normalize(name) + ID_SEPARATOR + id;
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+}
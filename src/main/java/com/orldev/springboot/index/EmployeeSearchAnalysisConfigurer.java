@@ -0,0 +1,26 @@
+package com.orldev.springboot.index;
+
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurationContext;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurer;
+
+//Analyzers of the Employee full-text fields, registered through hibernate.search.backend.analysis.configurer
+public class EmployeeSearchAnalysisConfigurer implements LuceneAnalysisConfigurer {
+
+    public static final String NAME = "employee_name";
+    public static final String EMAIL = "employee_email";
+
+    @Override
+    public void configure(LuceneAnalysisConfigurationContext context) {
+        //"José" matches "jose"
+        context.analyzer(NAME).custom()
+                .tokenizer("standard")
+                .tokenFilter("lowercase")
+                .tokenFilter("asciiFolding");
+
+        //"orlando.cruz@gmail.com" is indexed as orlando, cruz, gmail, com
+        context.analyzer(EMAIL).custom()
+                .tokenizer("pattern").param("pattern", "[@._+\\-]+")
+                .tokenFilter("lowercase")
+                .tokenFilter("asciiFolding");
+    }
+}
@@ -0,0 +1,261 @@
+package com.orldev.springboot.ingest;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.orldev.springboot.dto.IngestStatus;
+import com.orldev.springboot.exception.PartialSaveException;
+import com.orldev.springboot.exception.ResourceNotFoundException;
+import com.orldev.springboot.model.Employee;
+import com.orldev.springboot.service.EmployeeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+//Write-behind ingestion: accepted employees wait in a bounded queue and one writer thread saves them in batches,
+//a transaction per batch, so request threads never wait on the database. A full queue is refused, not waited on.
+//Statuses are kept in memory for status-ttl; queued employees are lost if the process dies before they are written.
+@Component
+public class EmployeeIngestQueue implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeIngestQueue.class);
+
+    private static final long POLL_MILLIS = 200;
+
+    private final boolean enabled;
+    private final EmployeeService employeeService;
+    private final int batchSize;
+    private final Duration retryAfter;
+    private final Duration shutdownTimeout;
+    private final Clock clock;
+    private final BlockingQueue<Task> queue;
+    private final Cache<String, IngestStatus> statuses;
+    private final Counter accepted;
+    private final Counter throttled;
+    private final Counter saved;
+    private final Counter rejected;
+    private final Counter failed;
+
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private Thread writer;
+
+    private record Task(String trackingId, Employee employee) {
+    }
+
+    public EmployeeIngestQueue(@Value("${employees.ingest.async.enabled:false}") boolean enabled,
+                               @Value("${employees.ingest.queue-capacity:10000}") int capacity,
+                               @Value("${employees.ingest.batch-size:500}") int batchSize,
+                               @Value("${employees.ingest.retry-after:1s}") Duration retryAfter,
+                               @Value("${employees.ingest.status-ttl:1h}") Duration statusTtl,
+                               @Value("${employees.ingest.shutdown-timeout:30s}") Duration shutdownTimeout,
+                               EmployeeService employeeService,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.employeeService = employeeService;
+        this.batchSize = batchSize;
+        this.retryAfter = retryAfter;
+        this.shutdownTimeout = shutdownTimeout;
+        this.clock = Clock.systemUTC();
+        this.queue = new ArrayBlockingQueue<>(enabled ? capacity : 1);
+        //Bounded like the queue: every queued employee keeps its status, finished ones age out
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(Math.max(capacity, 1) * 10L)
+                .expireAfterWrite(statusTtl)
+                .build();
+        this.accepting = enabled;
+
+        this.accepted = Counter.builder("employees.ingest.requests").tag("outcome", "accepted")
+                .description("Employees queued for asynchronous creation").register(meterRegistry);
+        this.throttled = Counter.builder("employees.ingest.requests").tag("outcome", "throttled")
+                .description("Asynchronous creations refused because the queue was full").register(meterRegistry);
+        this.saved = Counter.builder("employees.ingest.results").tag("state", "saved").register(meterRegistry);
+        this.rejected = Counter.builder("employees.ingest.results").tag("state", "rejected").register(meterRegistry);
+        this.failed = Counter.builder("employees.ingest.results").tag("state", "failed").register(meterRegistry);
+        Gauge.builder("employees.ingest.queue.size", queue, BlockingQueue::size)
+                .description("Employees waiting for the background writer").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    //Empty when the queue is full (or shutting down), the caller should retry later
+    public Optional<IngestStatus> submit(Employee employee) {
+        if(!accepting){
+            throttled.increment();
+            return Optional.empty();
+        }
+        IngestStatus status = IngestStatus.queued(UUID.randomUUID().toString(), clock.instant());
+        //Recorded first so the writer always finds the status it completes
+        statuses.put(status.trackingId(), status);
+        if(!queue.offer(new Task(status.trackingId(), employee))){
+            statuses.invalidate(status.trackingId());
+            throttled.increment();
+            return Optional.empty();
+        }
+        accepted.increment();
+        return Optional.of(status);
+    }
+
+    public Optional<IngestStatus> getStatus(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    //Writes everything queued so far, returns the number of employees taken from the queue
+    int drainQueued() {
+        int drained = 0;
+        List<Task> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            drained += batch.size();
+            write(batch);
+            batch.clear();
+        }
+        return drained;
+    }
+
+    private void run() {
+        List<Task> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Task first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if(first == null){
+                    continue;
+                }
+                batch.add(first);
+                //Whatever piled up while the previous batch was written goes into this one
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Employee ingest batch could not be completed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Task> batch) {
+        List<Employee> savedEmployees;
+        try {
+            savedEmployees = employeeService.saveEmployees(batch.stream().map(task -> newEmployee(task.employee())).toList());
+        } catch (PartialSaveException e) {
+            //Rows of the shards that committed are saved, only the others are replayed
+            List<Employee> committed = e.getSavedEmployees();
+            for (int i = 0; i < batch.size(); i++) {
+                if(committed.get(i) == null){
+                    writeOne(batch.get(i));
+                }else{
+                    complete(batch.get(i), committed.get(i), null);
+                }
+            }
+            return;
+        } catch (RuntimeException e) {
+            //One bad row rolls back the whole batch, so replay it row by row to find out which
+            batch.forEach(this::writeOne);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), savedEmployees.get(i), null);
+        }
+    }
+
+    private void writeOne(Task task) {
+        try {
+            complete(task, employeeService.saveEmployee(newEmployee(task.employee())), null);
+        } catch (RuntimeException e) {
+            complete(task, null, e);
+        }
+    }
+
+    private void complete(Task task, Employee savedEmployee, RuntimeException error) {
+        IngestStatus status = statuses.getIfPresent(task.trackingId());
+        if(status == null){
+            status = new IngestStatus(task.trackingId(), IngestStatus.State.QUEUED, null, null, null, null);
+        }
+        if(error == null){
+            saved.increment();
+            statuses.put(task.trackingId(), status.saved(savedEmployee.getId(), clock.instant()));
+        }else if(error instanceof ResourceNotFoundException){
+            //Duplicate email
+            rejected.increment();
+            statuses.put(task.trackingId(), status.rejected(error.getMessage(), clock.instant()));
+        }else{
+            failed.increment();
+            log.warn("Queued employee {} could not be saved", task.trackingId(), error);
+            statuses.put(task.trackingId(), status.failed(error.getClass().getSimpleName(), clock.instant()));
+        }
+    }
+
+    //Every attempt inserts a fresh entity: a rolled back batch leaves ids and versions on the ones it persisted
+    private static Employee newEmployee(Employee employee) {
+        return Employee.builder()
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .build();
+    }
+
+    @Override
+    public void start() {
+        if(!enabled){
+            return;
+        }
+        running = true;
+        writer = new Thread(this::run, "employee-ingest-writer");
+        writer.start();
+    }
+
+    //Stops accepting, then gives the writer shutdown-timeout to empty the queue
+    @Override
+    public void stop() {
+        accepting = false;
+        running = false;
+        if(writer == null){
+            return;
+        }
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if(writer.isAlive()){
+            writer.interrupt();
+        }
+        if(!queue.isEmpty()){
+            log.warn("{} queued employees were not written before shutdown", queue.size());
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    //Stopped after the web server (higher phases stop first), so requests accepted during shutdown are still written
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,97 @@
+package com.orldev.springboot.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Gradient-style concurrency limit: the long-term average latency is compared with each new sample, and the limit
+//shrinks by that ratio as soon as requests start queueing (database slower than usual) and grows by sqrt(limit)
+//while latency stays at its usual level. Failed requests back the limit off as well.
+public class AdaptiveConcurrencyLimit {
+
+    //A long-term average this far above the current latency means the overload has passed
+    private static final double RECOVERY_RATIO = 2.0;
+    private static final double RECOVERY_DECAY = 0.95;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final int longWindow;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    //Guarded by this
+    private double estimatedLimit;
+    private double longRtt;
+    private long samples;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing,
+                                    double rttTolerance, int longWindow) {
+        if(minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit){
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.longWindow = longWindow;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    //False when limit requests are already in flight, the caller should shed the request
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if(current >= limit){
+                return false;
+            }
+            if(inFlight.compareAndSet(current, current + 1)){
+                return true;
+            }
+        }
+    }
+
+    //Completes an acquired request, rttNanos is its latency
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightAtCompletion, dropped);
+    }
+
+    //Completes an acquired request whose latency says nothing about load (e.g. a long-lived stream)
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtCompletion, boolean dropped) {
+        double rtt = Math.max(rttNanos, 1);
+        samples++;
+        longRtt = samples == 1 ? rtt : longRtt + (rtt - longRtt) / Math.min(samples, longWindow);
+        if(longRtt / rtt > RECOVERY_RATIO){
+            longRtt *= RECOVERY_DECAY;
+        }
+
+        double newLimit;
+        if(dropped){
+            newLimit = estimatedLimit * DROP_BACKOFF;
+        }else if(inFlightAtCompletion < estimatedLimit / 2){
+            //Far below the limit: latency says nothing about whether more would fit
+            return;
+        }else{
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / rtt));
+            newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        }
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
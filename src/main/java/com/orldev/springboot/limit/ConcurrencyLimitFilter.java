@@ -0,0 +1,130 @@
+package com.orldev.springboot.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+//Load shedding in front of /api/employees: reads and writes each get an adaptive concurrency limit, requests over it
+//are answered right away with reject-status and Retry-After instead of queueing behind a slow database.
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public static final String PATH_PREFIX = "/api/employees";
+    //Long-lived streams that hold no database connection, bounded by employees.change-feed.max-subscribers instead
+    public static final String CHANGE_FEED_PATH = PATH_PREFIX + "/changes";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final AdaptiveConcurrencyLimit readLimit;
+    private final AdaptiveConcurrencyLimit writeLimit;
+    private final int rejectStatus;
+    private final Duration retryAfter;
+    private final Counter readRejected;
+    private final Counter writeRejected;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit readLimit, AdaptiveConcurrencyLimit writeLimit,
+                                  int rejectStatus, Duration retryAfter, MeterRegistry meterRegistry) {
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        this.rejectStatus = rejectStatus;
+        this.retryAfter = retryAfter;
+        this.readRejected = register(readLimit, "read", meterRegistry);
+        this.writeRejected = register(writeLimit, "write", meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith(PATH_PREFIX) || path.equals(CHANGE_FEED_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean read = SAFE_METHODS.contains(request.getMethod());
+        AdaptiveConcurrencyLimit limit = read ? readLimit : writeLimit;
+        if(!limit.tryAcquire()){
+            (read ? readRejected : writeRejected).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.toSeconds())));
+            response.sendError(rejectStatus);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        } finally {
+            if(request.isAsyncStarted()){
+                //Streams hold their slot until they finish, their duration is not a latency sample
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limit));
+            }else{
+                limit.release(System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    private static Counter register(AdaptiveConcurrencyLimit limit, String kind, MeterRegistry meterRegistry) {
+        Gauge.builder("employees.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .tag("kind", kind)
+                .description("Current adaptive concurrency limit of the employee API")
+                .register(meterRegistry);
+        Gauge.builder("employees.concurrency.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("kind", kind)
+                .description("Employee API requests being handled")
+                .register(meterRegistry);
+        return Counter.builder("employees.concurrency.rejected")
+                .tag("kind", kind)
+                .description("Employee API requests shed because the concurrency limit was reached")
+                .register(meterRegistry);
+    }
+
+    private static class ReleaseOnComplete implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private boolean released;
+
+        ReleaseOnComplete(AdaptiveConcurrencyLimit limit) {
+            this.limit = limit;
+        }
+
+        //Error and timeout are followed by complete, the slot is released on the first of them
+        private synchronized void release() {
+            if(!released){
+                released = true;
+                limit.releaseWithoutSample();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
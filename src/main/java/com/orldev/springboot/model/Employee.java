@@ -2,7 +2,21 @@ package com.orldev.springboot.model;
 
 
 import jakarta.persistence.*;
+import com.orldev.springboot.index.EmployeeSearchAnalysisConfigurer;
+import com.orldev.springboot.shard.ShardedSequenceGenerator;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.search.engine.backend.types.Projectable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+
+import java.time.Instant;
 
 @Getter
 @Setter
@@ -10,18 +24,49 @@ import lombok.*;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "employees")
+//Full-text index of names and email (see EmployeeFullTextIndex)
+@Indexed(index = "employees")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employees")
+@Table(name = "employees", uniqueConstraints = {
+        @UniqueConstraint(name = Employee.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email")
+}, indexes = {
+        @Index(name = "idx_employees_first_name_id", columnList = "first_name, id"),
+        @Index(name = "idx_employees_last_name_id", columnList = "last_name, id"),
+        //MAX(last_modified) of the list ETag is read from the end of this index instead of scanning the table
+        @Index(name = "idx_employees_last_modified", columnList = "last_modified")
+})
 public class Employee {
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_employees_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    //Pooled sequence (a table on MySQL) so Hibernate can batch inserts, IDENTITY disables JDBC batching.
+    //One sequence per shard, the generator encodes the shard into the id (see ShardRouter).
+    @GeneratedValue(generator = "employees_seq")
+    @GenericGenerator(name = "employees_seq", type = ShardedSequenceGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "employees_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+    })
     private Long id;
 
     @Column(nullable = false)
+    @FullTextField(analyzer = EmployeeSearchAnalysisConfigurer.NAME, projectable = Projectable.YES)
     private String firstName;
 
     @Column(nullable = false)
+    @FullTextField(analyzer = EmployeeSearchAnalysisConfigurer.NAME, projectable = Projectable.YES)
     private String lastName;
 
     @Column(nullable = false)
+    @FullTextField(analyzer = EmployeeSearchAnalysisConfigurer.EMAIL, projectable = Projectable.YES)
     private String email;
+
+    //Bumped on every update, exposed as the strong ETag of the resource
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    private Instant lastModified;
 }
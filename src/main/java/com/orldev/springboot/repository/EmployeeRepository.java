@@ -1,15 +1,56 @@
 package com.orldev.springboot.repository;
 
+import com.orldev.springboot.dto.EmployeeSuggestion;
+import com.orldev.springboot.dto.EmployeeTableStats;
+import com.orldev.springboot.dto.EmployeeView;
 import com.orldev.springboot.model.Employee;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
+    //Select clause of the read-only queries, rows are mapped straight to EmployeeView
+    String EMPLOYEE_VIEW = "new com.orldev.springboot.dto.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version, e.lastModified)";
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     Optional<Employee> findByEmail(String email);
 
+    //Version-only lookup used to answer conditional requests without loading the row
+    @Query("SELECT e.version FROM Employee e WHERE e.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT " + EMPLOYEE_VIEW + " FROM Employee e")
+    List<EmployeeView> findAllViews();
+
+    @Query("SELECT " + EMPLOYEE_VIEW + " FROM Employee e WHERE e.id = :id")
+    Optional<EmployeeView> findViewById(@Param("id") Long id);
+
+    @Query("SELECT " + EMPLOYEE_VIEW + " FROM Employee e WHERE e.id IN :ids")
+    List<EmployeeView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    //Runs on every list GET, 304s included: both MAX are read from the end of an index (primary key and
+    //idx_employees_last_modified), COUNT still walks the smallest index of the table
+    @Query("SELECT new com.orldev.springboot.dto.EmployeeTableStats(COUNT(e), MAX(e.id), MAX(e.lastModified)) FROM Employee e")
+    EmployeeTableStats findTableStats();
+
+    //Locks the rows it finds until the transaction ends, a bulk delete then removes exactly these ids
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e.id FROM Employee e WHERE e.id IN :ids")
+    List<Long> findIdsByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT e.email FROM Employee e WHERE e.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     //Define custom query using JPQL with index params
     @Query("SELECT e FROM Employee e WHERE e.firstName = ?1 and e.lastName = ?2")
     Employee findByJPQLIndex(String firstName, String lastName);
@@ -25,4 +66,45 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     //Define custom query using Native SQL with index params
     @Query(value = "SELECT * FROM employees e WHERE e.first_name = :firstName AND e.last_name = :lastName", nativeQuery = true)
     Employee findByNativeSQLNamed(@Param("firstName") String firstName,@Param("lastName") String lastName);
+
+    //Keyset pagination: seek past the last (sort key, id) seen instead of using OFFSET
+    @Query("SELECT " + EMPLOYEE_VIEW + " FROM Employee e WHERE e.id > :afterId ORDER BY e.id")
+    List<EmployeeView> findPageOrderById(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT " + EMPLOYEE_VIEW + " FROM Employee e WHERE (e.firstName, e.id) > (:firstName, :afterId) ORDER BY e.firstName, e.id")
+    List<EmployeeView> findPageOrderByFirstName(@Param("firstName") String firstName, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT " + EMPLOYEE_VIEW + " FROM Employee e WHERE (e.lastName, e.id) > (:lastName, :afterId) ORDER BY e.lastName, e.id")
+    List<EmployeeView> findPageOrderByLastName(@Param("lastName") String lastName, @Param("afterId") Long afterId, Pageable pageable);
+
+    //Prefix search, patterns end with % and escape wildcards with '!'. The (name, id) indexes serve both the
+    //LIKE range and the keyset order
+    @Query("SELECT " + EMPLOYEE_VIEW + " FROM Employee e WHERE e.lastName LIKE :lastName ESCAPE '!' AND e.firstName LIKE :firstName ESCAPE '!' " +
+            "AND (e.lastName, e.id) > (:afterLastName, :afterId) ORDER BY e.lastName, e.id")
+    List<EmployeeView> searchByLastNamePrefix(@Param("lastName") String lastNamePattern, @Param("firstName") String firstNamePattern,
+                                              @Param("afterLastName") String afterLastName, @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    @Query("SELECT " + EMPLOYEE_VIEW + " FROM Employee e WHERE e.firstName LIKE :firstName ESCAPE '!' " +
+            "AND (e.firstName, e.id) > (:afterFirstName, :afterId) ORDER BY e.firstName, e.id")
+    List<EmployeeView> searchByFirstNamePrefix(@Param("firstName") String firstNamePattern, @Param("afterFirstName") String afterFirstName,
+                                               @Param("afterId") Long afterId, Pageable pageable);
+
+    //Autocomplete straight from the database, used when the in-memory name index is disabled
+    @Query("SELECT new com.orldev.springboot.dto.EmployeeSuggestion(e.id, e.firstName, e.lastName) FROM Employee e " +
+            "WHERE e.firstName LIKE :prefix ESCAPE '!' OR e.lastName LIKE :prefix ESCAPE '!' ORDER BY e.lastName, e.firstName, e.id")
+    List<EmployeeSuggestion> findSuggestions(@Param("prefix") String prefixPattern, Pageable pageable);
+
+    //Streams every row for exports, must be consumed and closed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT " + EMPLOYEE_VIEW + " FROM Employee e ORDER BY e.id")
+    Stream<EmployeeView> streamAllOrderById();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT e.email FROM Employee e")
+    Stream<String> streamAllEmails();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.orldev.springboot.dto.EmployeeSuggestion(e.id, e.firstName, e.lastName) FROM Employee e")
+    Stream<EmployeeSuggestion> streamAllNames();
 }
@@ -0,0 +1,22 @@
+package com.orldev.springboot.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+
+//Writes by id that leave the rest of the "employees" second-level cache region in place
+public interface EmployeeRepositoryCustom {
+
+    //Single round trip updates returning the affected row count, the version predicate is the optimistic lock
+    int updateByIdAndVersion(Long id, Long version, String firstName, String lastName, String email, Instant lastModified);
+
+    int updateById(Long id, String firstName, String lastName, String email, Instant lastModified);
+
+    //Updates only the given columns in one statement, expectedVersion null skips the optimistic check
+    int patchById(Long id, Long expectedVersion, Map<String, String> changes, Instant lastModified);
+
+    //Deletes without loading the entity first, the row count tells a missing id apart
+    int deleteEmployeeById(Long id);
+
+    int deleteEmployeesByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,120 @@
+package com.orldev.springboot.repository;
+
+import com.orldev.springboot.model.Employee;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+//A JPQL UPDATE or DELETE makes Hibernate evict the whole entity region, so every write would empty the cache.
+//These run as native statements synchronized on no query space instead, and evict only the ids they wrote:
+//once when the statement runs and again after the transaction completes, like Hibernate's bulk cleanup does.
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    //Field names map to the columns concatenated into the statement, so only these may ever be patched
+    static final Map<String, String> PATCHABLE_FIELDS = Map.of(
+            "firstName", "first_name",
+            "lastName", "last_name",
+            "email", "email");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int updateByIdAndVersion(Long id, Long version, String firstName, String lastName, String email,
+                                    Instant lastModified) {
+        return execute(List.of(id), "UPDATE employees SET first_name = :firstName, last_name = :lastName, email = :email, " +
+                        "version = version + 1, last_modified = :lastModified WHERE id = :id AND version = :version",
+                Map.of("id", id, "version", version, "firstName", firstName, "lastName", lastName, "email", email,
+                        "lastModified", lastModified));
+    }
+
+    @Override
+    public int updateById(Long id, String firstName, String lastName, String email, Instant lastModified) {
+        return execute(List.of(id), "UPDATE employees SET first_name = :firstName, last_name = :lastName, email = :email, " +
+                        "version = version + 1, last_modified = :lastModified WHERE id = :id",
+                Map.of("id", id, "firstName", firstName, "lastName", lastName, "email", email,
+                        "lastModified", lastModified));
+    }
+
+    @Override
+    public int patchById(Long id, Long expectedVersion, Map<String, String> changes, Instant lastModified) {
+        StringBuilder sql = new StringBuilder("UPDATE employees SET version = version + 1, last_modified = :lastModified");
+        for (String field : changes.keySet()) {
+            String column = PATCHABLE_FIELDS.get(field);
+            if(column == null){
+                throw new IllegalArgumentException("Field cannot be patched: " + field);
+            }
+            sql.append(", ").append(column).append(" = :").append(field);
+        }
+        sql.append(" WHERE id = :id");
+        if(expectedVersion != null){
+            sql.append(" AND version = :version");
+        }
+
+        NativeQuery<?> query = nativeQuery(sql.toString())
+                .setParameter("id", id)
+                .setParameter("lastModified", lastModified);
+        changes.forEach(query::setParameter);
+        if(expectedVersion != null){
+            query.setParameter("version", expectedVersion);
+        }
+        return execute(List.of(id), query);
+    }
+
+    @Override
+    public int deleteEmployeeById(Long id) {
+        return execute(List.of(id), "DELETE FROM employees WHERE id = :id", Map.of("id", id));
+    }
+
+    @Override
+    public int deleteEmployeesByIdIn(Collection<Long> ids) {
+        if(ids.isEmpty()){
+            return 0;
+        }
+        return execute(ids, "DELETE FROM employees WHERE id IN (:ids)", Map.of("ids", ids));
+    }
+
+    private int execute(Collection<Long> ids, String sql, Map<String, Object> parameters) {
+        NativeQuery<?> query = nativeQuery(sql);
+        parameters.forEach(query::setParameter);
+        return execute(ids, query);
+    }
+
+    private int execute(Collection<Long> ids, NativeQuery<?> query) {
+        int updated = query.executeUpdate();
+        //Written rows must not be served from the persistence context either
+        entityManager.clear();
+        if(updated > 0){
+            evict(ids);
+        }
+        return updated;
+    }
+
+    //An empty query space matches no entity, otherwise a native statement invalidates every region
+    private NativeQuery<?> nativeQuery(String sql) {
+        return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class).addSynchronizedQuerySpace("");
+    }
+
+    //The second eviction drops what a transaction that read the old row put back before this one committed
+    private void evict(Collection<Long> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        List<Long> evicted = List.copyOf(ids);
+        evicted.forEach(id -> cache.evict(Employee.class, id));
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evicted.forEach(id -> cache.evict(Employee.class, id));
+                }
+            });
+        }
+    }
+}
@@ -1,19 +1,53 @@
 package com.orldev.springboot.service;
 
+import com.orldev.springboot.dto.EmployeeDeleteResult;
+import com.orldev.springboot.dto.EmployeePage;
+import com.orldev.springboot.dto.EmployeeSearchHit;
+import com.orldev.springboot.dto.EmployeeSuggestion;
+import com.orldev.springboot.dto.EmployeeTableStats;
+import com.orldev.springboot.dto.EmployeeView;
 import com.orldev.springboot.model.Employee;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
 
-    List<Employee> getAllEmployees();
+    List<Employee> saveEmployees(List<Employee> employees);
 
-    Optional<Employee> getEmployeeById(Long id);
+    List<EmployeeView> getAllEmployees();
+
+    EmployeePage getEmployeesPage(String after, int limit, String sort);
+
+    EmployeePage searchEmployees(String firstName, String lastName, String after, int limit);
+
+    List<EmployeeSuggestion> suggestEmployees(String prefix, int limit);
+
+    List<EmployeeSearchHit> fullTextSearch(String text, int limit);
+
+    void reindexFullText();
+
+    long exportEmployees(Consumer<EmployeeView> consumer);
+
+    Optional<EmployeeView> getEmployeeById(Long id);
+
+    //Found employees by id, ids without a row are simply absent from the map
+    Map<Long, EmployeeView> getEmployeesById(Collection<Long> ids);
+
+    Optional<Long> getEmployeeVersion(Long id);
+
+    EmployeeTableStats getEmployeeTableStats();
 
     Optional<Employee> updateEmployee(Long id, Employee employee);
 
-    void deleteEmployee(Long id);
+    Optional<Employee> patchEmployee(Long id, Map<String, Object> patch, Long expectedVersion);
+
+    boolean deleteEmployee(Long id);
+
+    EmployeeDeleteResult deleteEmployees(Collection<Long> ids);
 
 }
@@ -1,50 +1,457 @@
 package com.orldev.springboot.service.impl;
 
+import com.orldev.springboot.dto.EmployeeCursor;
+import com.orldev.springboot.dto.EmployeeDeleteResult;
+import com.orldev.springboot.dto.EmployeePage;
+import com.orldev.springboot.dto.EmployeeSortKey;
+import com.orldev.springboot.dto.EmployeeSearchHit;
+import com.orldev.springboot.dto.EmployeeSuggestion;
+import com.orldev.springboot.dto.EmployeeTableStats;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.event.EmployeeEvent;
+import com.orldev.springboot.exception.DuplicateEmailException;
+import com.orldev.springboot.exception.ResourceConflictException;
 import com.orldev.springboot.exception.ResourceNotFoundException;
+import com.orldev.springboot.index.EmailBloomFilter;
+import com.orldev.springboot.index.EmployeeFullTextIndex;
+import com.orldev.springboot.index.EmployeeNameIndex;
 import com.orldev.springboot.model.Employee;
 import com.orldev.springboot.repository.EmployeeRepository;
 import com.orldev.springboot.service.EmployeeService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
 import lombok.AllArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @AllArgsConstructor
 @Service
+@Timed("employees.service")
 public class EmployeeServiceImpl implements EmployeeService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
+    public static final int MAX_SUGGESTIONS = 50;
+
+    //Rows per IN list and per flush/clear cycle of batch inserts and deletes
+    public static final int BATCH_CHUNK_SIZE = 1000;
+
     private EmployeeRepository employeeRepository;
+
+    private EntityManager entityManager;
+
+    private EmailBloomFilter emailBloomFilter;
+
+    private EmployeeNameIndex employeeNameIndex;
+
+    private EmployeeFullTextIndex employeeFullTextIndex;
+
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public Employee saveEmployee(Employee employee) {
+        //The unique index is the real guard, the lookup only runs when the filter cannot rule the email out
+        if(emailBloomFilter.mightContain(employee.getEmail())){
+            boolean exists = employeeRepository.findByEmail(employee.getEmail()).isPresent();
+            emailBloomFilter.recordLookup(exists);
+            if(exists){
+                throw duplicateEmail(employee.getEmail(), null);
+            }
+        }
+
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            if(isDuplicateEmail(e)){
+                throw duplicateEmail(employee.getEmail(), e);
+            }
+            throw e;
+        }
+        emailBloomFilter.put(savedEmployee.getEmail());
+        eventPublisher.publishEvent(EmployeeEvent.created(savedEmployee));
+        return savedEmployee;
+    }
+
+    @Override
+    @Transactional
+    public List<Employee> saveEmployees(List<Employee> employees) {
+        Set<String> emails = new HashSet<>();
+        for (Employee employee : employees) {
+            if(!emails.add(employee.getEmail())){
+                throw duplicateEmail(employee.getEmail(), null);
+            }
+        }
+        List<String> emailList = new ArrayList<>(emails);
+        for (int i = 0; i < emailList.size(); i += BATCH_CHUNK_SIZE) {
+            List<String> existing = employeeRepository.findExistingEmails(
+                    emailList.subList(i, Math.min(i + BATCH_CHUNK_SIZE, emailList.size())));
+            if(!existing.isEmpty()){
+                throw duplicateEmail(existing.get(0), null);
+            }
+        }
+
+        List<Employee> savedEmployees = new ArrayList<>(employees.size());
+        for (int i = 0; i < employees.size(); i += BATCH_CHUNK_SIZE) {
+            List<Employee> chunk = employees.subList(i, Math.min(i + BATCH_CHUNK_SIZE, employees.size()));
+            savedEmployees.addAll(employeeRepository.saveAll(chunk));
+            //Send the JDBC batches and drop the flushed entities so large loads keep a bounded persistence context
+            try {
+                entityManager.flush();
+            } catch (PersistenceException e) {
+                //A concurrent writer took one of the emails after the IN check
+                if(isDuplicateEmail(e)){
+                    throw duplicateEmail(reportedEmail(e, chunk), e);
+                }
+                throw e;
+            }
+            entityManager.clear();
+        }
+        emails.forEach(emailBloomFilter::put);
+        savedEmployees.forEach(employee -> eventPublisher.publishEvent(EmployeeEvent.created(employee)));
+        return savedEmployees;
+    }
+
+    private static boolean isDuplicateEmail(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if(cause instanceof ConstraintViolationException violation){
+                //Dialects report the name differently, e.g. "employees.uk_employees_email" on MySQL 8
+                return violation.getConstraintName() != null
+                        && violation.getConstraintName().toLowerCase().contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    //The email of the batch named in the database's error message (MySQL and H2 quote the duplicate value), if any
+    private static String reportedEmail(Throwable e, List<Employee> batch) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if(message == null){
+                continue;
+            }
+            for (Employee employee : batch) {
+                if(message.contains("'" + employee.getEmail() + "'")){
+                    return employee.getEmail();
+                }
+            }
+        }
+        return null;
+    }
+
+    //email is null when the database did not say which one of a batch was taken
+    private static ResourceNotFoundException duplicateEmail(String email, Throwable cause) {
+        return new ResourceNotFoundException(email == null
+                ? "Employee already exist with one of the given emails"
+                : "Employee already exist with the given email:" + email, cause);
+    }
+
+    //Updates answer a taken email as a conflict, the employee itself exists
+    private static DuplicateEmailException emailTaken(String email, Throwable cause) {
+        return new DuplicateEmailException("Employee already exist with the given email:" + email, cause);
+    }
+
+    //Reads return EmployeeView rows from constructor expressions: nothing is attached to the persistence context,
+    //and readOnly also skips the flush before each query
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> getAllEmployees() {
+        return employeeRepository.findAllViews();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeesPage(String after, int limit, String sort) {
+        int pageSize = pageSize(limit);
+        EmployeeSortKey sortKey = EmployeeSortKey.fromParam(sort);
+        EmployeeCursor cursor = cursor(after, sortKey);
+
+        //Fetch one extra row to know whether another page follows without a COUNT query
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<EmployeeView> rows = switch (sortKey) {
+            case ID -> employeeRepository.findPageOrderById(cursor.id(), pageable);
+            case FIRST_NAME -> employeeRepository.findPageOrderByFirstName(cursor.value(), cursor.id(), pageable);
+            case LAST_NAME -> employeeRepository.findPageOrderByLastName(cursor.value(), cursor.id(), pageable);
+        };
+        return page(rows, pageSize, sortKey);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage searchEmployees(String firstName, String lastName, String after, int limit) {
+        boolean byLastName = lastName != null && !lastName.isBlank();
+        if(!byLastName && (firstName == null || firstName.isBlank())){
+            throw new IllegalArgumentException("Search needs a firstName or lastName prefix");
+        }
+        int pageSize = pageSize(limit);
+        //The last name drives the index range when given, the first name is then a residual filter
+        EmployeeSortKey sortKey = byLastName ? EmployeeSortKey.LAST_NAME : EmployeeSortKey.FIRST_NAME;
+        EmployeeCursor cursor = cursor(after, sortKey);
+
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<EmployeeView> rows = byLastName
+                ? employeeRepository.searchByLastNamePrefix(likePrefix(lastName), likePrefix(firstName),
+                cursor.value(), cursor.id(), pageable)
+                : employeeRepository.searchByFirstNamePrefix(likePrefix(firstName), cursor.value(), cursor.id(), pageable);
+        return page(rows, pageSize, sortKey);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeSuggestion> suggestEmployees(String prefix, int limit) {
+        if(limit < 1){
+            throw new IllegalArgumentException("Suggestion limit must be positive: " + limit);
+        }
+        if(prefix == null || prefix.isBlank()){
+            return List.of();
+        }
+        int size = Math.min(limit, MAX_SUGGESTIONS);
+        if(employeeNameIndex.isEnabled()){
+            return employeeNameIndex.suggest(prefix.strip(), size);
+        }
+        return employeeRepository.findSuggestions(likePrefix(prefix.strip()), PageRequest.of(0, size));
+    }
+
+    @Override
+    public List<EmployeeSearchHit> fullTextSearch(String text, int limit) {
+        if(text == null || text.isBlank()){
+            throw new IllegalArgumentException("Full-text search needs a query");
+        }
+        return employeeFullTextIndex.search(text.strip(), pageSize(limit));
+    }
 
-        if(employeeRepository.findByEmail(employee.getEmail()).isPresent()){
-            throw new ResourceNotFoundException("Employee already exist with the given email:" + employee.getEmail());
+    @Override
+    public void reindexFullText() {
+        employeeFullTextIndex.reindex();
+    }
+
+    private static int pageSize(int limit) {
+        if(limit < 1){
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
         }
-        return employeeRepository.save(employee);
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private static EmployeeCursor cursor(String after, EmployeeSortKey sortKey) {
+        EmployeeCursor cursor = after == null || after.isEmpty()
+                ? new EmployeeCursor(sortKey, "", 0L)
+                : EmployeeCursor.decode(after);
+        if(cursor.sortKey() != sortKey){
+            throw new IllegalArgumentException("Cursor was issued for sort key: " + cursor.sortKey().getParam());
+        }
+        return cursor;
+    }
+
+    //rows holds up to pageSize + 1 entries, the extra one only signals that a next page exists
+    private static EmployeePage page(List<EmployeeView> rows, int pageSize, EmployeeSortKey sortKey) {
+        if(rows.size() <= pageSize){
+            return new EmployeePage(rows, null);
+        }
+        List<EmployeeView> page = rows.subList(0, pageSize);
+        EmployeeView last = page.get(pageSize - 1);
+        return new EmployeePage(page, new EmployeeCursor(sortKey, sortValue(sortKey, last), last.id()).encode());
+    }
+
+    //LIKE pattern matching values that start with prefix, wildcards in the input are escaped with '!'
+    private static String likePrefix(String prefix) {
+        if(prefix == null || prefix.isBlank()){
+            return "%";
+        }
+        return prefix.strip().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    private static String sortValue(EmployeeSortKey sortKey, EmployeeView employee) {
+        return switch (sortKey) {
+            case ID -> "";
+            case FIRST_NAME -> employee.firstName();
+            case LAST_NAME -> employee.lastName();
+        };
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportEmployees(Consumer<EmployeeView> consumer) {
+        long count = 0;
+        //Views are never managed, so the persistence context stays empty however large the table is
+        try (Stream<EmployeeView> employees = employeeRepository.streamAllOrderById()) {
+            for (EmployeeView employee : (Iterable<EmployeeView>) employees::iterator) {
+                consumer.accept(employee);
+                count++;
+            }
+        }
+        return count;
     }
 
     @Override
-    public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+    @Transactional(readOnly = true)
+    public Optional<EmployeeView> getEmployeeById(Long id) {
+        //A second-level cache hit needs no query at all, and is loaded without a snapshot in the read-only session
+        if(entityManager.getEntityManagerFactory().getCache().contains(Employee.class, id)){
+            return employeeRepository.findById(id).map(EmployeeView::of);
+        }
+        return employeeRepository.findViewById(id);
     }
 
     @Override
-    public Optional<Employee> getEmployeeById(Long id) {
-        return employeeRepository.findById(id);
+    @Transactional(readOnly = true)
+    public Map<Long, EmployeeView> getEmployeesById(Collection<Long> ids) {
+        Map<Long, EmployeeView> employees = new HashMap<>();
+        List<Long> uncachedIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if(id == null){
+                continue;
+            }
+            if(entityManager.getEntityManagerFactory().getCache().contains(Employee.class, id)){
+                employeeRepository.findById(id).ifPresent(employee -> employees.put(id, EmployeeView.of(employee)));
+            }else{
+                uncachedIds.add(id);
+            }
+        }
+        //Everything the second-level cache does not hold comes from one IN query per chunk
+        for (int i = 0; i < uncachedIds.size(); i += BATCH_CHUNK_SIZE) {
+            employeeRepository.findViewsByIdIn(uncachedIds.subList(i, Math.min(i + BATCH_CHUNK_SIZE, uncachedIds.size())))
+                    .forEach(employee -> employees.put(employee.id(), employee));
+        }
+        return employees;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getEmployeeVersion(Long id) {
+        //A second-level cache hit is cheaper than the version-only query
+        if(entityManager.getEntityManagerFactory().getCache().contains(Employee.class, id)){
+            return employeeRepository.findById(id).map(Employee::getVersion);
+        }
+        return employeeRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeTableStats getEmployeeTableStats() {
+        return employeeRepository.findTableStats();
+    }
+
+    @Override
+    @Transactional
     public Optional<Employee> updateEmployee(Long id, Employee employee) {
-        Optional<Employee> optionalEmployee = employeeRepository.findById(id);
-        if(!optionalEmployee.isPresent()){
-            throw new ResourceNotFoundException("Employee not found for the id: " + id);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Long expectedVersion = employee.getVersion();
+        int updated;
+        try {
+            updated = expectedVersion == null
+                    ? employeeRepository.updateById(id, employee.getFirstName(), employee.getLastName(), employee.getEmail(), now)
+                    : employeeRepository.updateByIdAndVersion(id, expectedVersion, employee.getFirstName(),
+                    employee.getLastName(), employee.getEmail(), now);
+        } catch (DataIntegrityViolationException e) {
+            if(isDuplicateEmail(e)){
+                throw emailTaken(employee.getEmail(), e);
+            }
+            throw e;
+        }
+        if(updated == 0){
+            throw notUpdated(id, expectedVersion);
+        }
+
+        employee.setId(id);
+        //Only a conditional update knows the version it wrote; an unconditional one stays a single statement and
+        //answers without an ETag, clients revalidate with a GET
+        employee.setVersion(expectedVersion == null ? null : expectedVersion + 1);
+        employee.setLastModified(now);
+        emailBloomFilter.put(employee.getEmail());
+        eventPublisher.publishEvent(EmployeeEvent.updated(employee));
+        return Optional.of(employee);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Employee> patchEmployee(Long id, Map<String, Object> patch, Long expectedVersion) {
+        //JSON Merge Patch: absent members stay untouched, null would remove a required column
+        Map<String, String> changes = new HashMap<>();
+        patch.forEach((field, value) -> {
+            if(!(value instanceof String text)){
+                throw new IllegalArgumentException("Field must be a non-null string: " + field);
+            }
+            changes.put(field, text);
+        });
+        if(changes.isEmpty()){
+            return employeeRepository.findById(id);
         }
-        return Optional.of(employeeRepository.save(employee));
+
+        int updated;
+        try {
+            updated = employeeRepository.patchById(id, expectedVersion, changes, Instant.now().truncatedTo(ChronoUnit.MICROS));
+        } catch (DataIntegrityViolationException e) {
+            if(isDuplicateEmail(e)){
+                throw emailTaken(changes.get("email"), e);
+            }
+            throw e;
+        }
+        if(updated == 0){
+            throw notUpdated(id, expectedVersion);
+        }
+        if(changes.containsKey("email")){
+            emailBloomFilter.put(changes.get("email"));
+        }
+        Optional<Employee> patched = employeeRepository.findById(id);
+        patched.ifPresent(employee -> eventPublisher.publishEvent(EmployeeEvent.updated(employee)));
+        return patched;
+    }
+
+    //Only the failure path pays for a second query, to tell a missing row from a stale version
+    private RuntimeException notUpdated(Long id, Long expectedVersion) {
+        if(expectedVersion != null && employeeRepository.existsById(id)){
+            return new ResourceConflictException("Employee was modified concurrently, id: " + id);
+        }
+        return new ResourceNotFoundException("Employee not found for the id: " + id);
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteEmployee(Long id) {
+        if(employeeRepository.deleteEmployeeById(id) == 0){
+            return false;
+        }
+        eventPublisher.publishEvent(EmployeeEvent.deleted(id));
+        return true;
     }
 
     @Override
-    public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+    @Transactional
+    public EmployeeDeleteResult deleteEmployees(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        int deleted = 0;
+        //Chunked IN lists keep each statement well under packet and parser limits
+        for (int i = 0; i < distinctIds.size(); i += BATCH_CHUNK_SIZE) {
+            //The bulk delete only returns a count: the ids it removes are selected and locked first, so a concurrent
+            //delete cannot take one of them in between and exactly those are published
+            List<Long> existingIds = employeeRepository.findIdsByIdInForUpdate(
+                    distinctIds.subList(i, Math.min(i + BATCH_CHUNK_SIZE, distinctIds.size())));
+            if(existingIds.isEmpty()){
+                continue;
+            }
+            deleted += employeeRepository.deleteEmployeesByIdIn(existingIds);
+            existingIds.forEach(id -> eventPublisher.publishEvent(EmployeeEvent.deleted(id)));
+        }
+        return new EmployeeDeleteResult(distinctIds.size(), deleted);
     }
 }
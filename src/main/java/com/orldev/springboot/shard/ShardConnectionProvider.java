@@ -0,0 +1,75 @@
+package com.orldev.springboot.shard;
+
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+//Hibernate database-per-tenant connections, the tenant identifier is the shard number.
+//"Any" connections (schema tooling, metadata) follow ShardContext so each shard can be migrated in turn.
+public class ShardConnectionProvider implements MultiTenantConnectionProvider<String>, AutoCloseable {
+
+    private final List<DataSource> shards;
+
+    public ShardConnectionProvider(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    @Override
+    public Connection getAnyConnection() throws SQLException {
+        return shards.get(ShardContext.current()).getConnection();
+    }
+
+    @Override
+    public void releaseAnyConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public Connection getConnection(String tenantIdentifier) throws SQLException {
+        return shards.get(Integer.parseInt(tenantIdentifier)).getConnection();
+    }
+
+    @Override
+    public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    //Shard 0 is the application DataSource bean and closes with the context, the other pools are owned here
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : shards.subList(1, shards.size())) {
+            if(shard instanceof AutoCloseable closeable){
+                closeable.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isInstance(this);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        if(unwrapType.isInstance(this)){
+            return unwrapType.cast(this);
+        }
+        throw new IllegalArgumentException("Cannot unwrap to " + unwrapType);
+    }
+}
@@ -0,0 +1,40 @@
+package com.orldev.springboot.shard;
+
+import java.util.function.Supplier;
+
+//Shard the current thread works on. Hibernate resolves it as the tenant when a session opens, so it has to be set
+//before the transaction starts; a session stays on its shard until it closes.
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    //Shard 0 (spring.datasource.url) outside of run()
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? 0 : shard;
+    }
+
+    public static <T> T run(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if(previous == null){
+                CURRENT.remove();
+            }else{
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void run(int shard, Runnable action) {
+        run(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
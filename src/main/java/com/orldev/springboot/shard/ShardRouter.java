@@ -0,0 +1,44 @@
+package com.orldev.springboot.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+//Placement rules: a new employee lives on the shard of its email hash, and its id carries that shard
+//(id = local sequence value * shardCount + shard), so lookups by id need no directory.
+public class ShardRouter {
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if(shardCount < 1){
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public IntStream shards() {
+        return IntStream.range(0, shardCount);
+    }
+
+    //Case-insensitive like the MySQL unique index, so duplicates that differ by case meet on the same shard
+    public int shardForEmail(String email) {
+        CRC32 crc = new CRC32();
+        crc.update(email.strip().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % shardCount);
+    }
+
+    public int shardForId(long id) {
+        return (int) Math.floorMod(id, (long) shardCount);
+    }
+
+    //Globally unique as long as each shard only encodes its own sequence values
+    public static long encodeId(long localId, int shard, int shardCount) {
+        return Math.addExact(Math.multiplyExact(localId, (long) shardCount), shard);
+    }
+}
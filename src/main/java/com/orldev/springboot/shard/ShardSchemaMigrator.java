@@ -0,0 +1,44 @@
+package com.orldev.springboot.shard;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+//Hibernate only runs its schema action (spring.jpa.hibernate.ddl-auto) against shard 0, this replays it on the others
+//with the mapping captured at bootstrap
+public class ShardSchemaMigrator implements Integrator {
+
+    private volatile Metadata metadata;
+
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.sessionFactory = null;
+    }
+
+    public void migrate(int shard) {
+        if(metadata == null){
+            throw new IllegalStateException("Hibernate has not been bootstrapped with this integrator");
+        }
+        Map<String, Object> settings = new HashMap<>(sessionFactory.getProperties());
+        //Schema tooling connects through getAnyConnection(), which follows ShardContext.
+        //A create-drop schema is dropped with the database of the shard, not on shutdown.
+        ShardContext.run(shard, () -> SchemaManagementToolCoordinator.process(metadata,
+                sessionFactory.getServiceRegistry(), settings, action -> {
+                }));
+    }
+}
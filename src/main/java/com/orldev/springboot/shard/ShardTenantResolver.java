@@ -0,0 +1,17 @@
+package com.orldev.springboot.shard;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+//Sessions open on the shard of the calling thread
+public class ShardTenantResolver implements CurrentTenantIdentifierResolver<String> {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return Integer.toString(ShardContext.current());
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
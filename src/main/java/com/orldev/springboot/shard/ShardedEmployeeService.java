@@ -0,0 +1,421 @@
+package com.orldev.springboot.shard;
+
+import com.orldev.springboot.dto.EmployeeCursor;
+import com.orldev.springboot.dto.EmployeeDeleteResult;
+import com.orldev.springboot.dto.EmployeePage;
+import com.orldev.springboot.dto.EmployeeSearchHit;
+import com.orldev.springboot.dto.EmployeeSortKey;
+import com.orldev.springboot.dto.EmployeeSuggestion;
+import com.orldev.springboot.dto.EmployeeTableStats;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.exception.DuplicateEmailException;
+import com.orldev.springboot.exception.PartialSaveException;
+import com.orldev.springboot.exception.ResourceNotFoundException;
+import com.orldev.springboot.index.EmployeeNameIndex;
+import com.orldev.springboot.model.Employee;
+import com.orldev.springboot.repository.EmployeeRepository;
+import com.orldev.springboot.service.EmployeeService;
+import com.orldev.springboot.service.impl.EmployeeServiceImpl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+//EmployeeService over all shards: single-row calls run the regular service on the owning shard (email hash for
+//inserts, the id for everything else), reads that span the table are scattered to every shard in parallel and merged.
+//Each shard call is its own transaction, so a write touching several shards is not atomic.
+public class ShardedEmployeeService implements EmployeeService, AutoCloseable {
+
+    //Views buffered per shard while exporting, bounds memory when the client reads slower than the shards stream
+    static final int EXPORT_BUFFER = 256;
+
+    private static final Object END_OF_SHARD = new Object();
+
+    private final EmployeeService delegate;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeNameIndex employeeNameIndex;
+
+    private final ShardRouter router;
+
+    private final ExecutorService executor;
+
+    public ShardedEmployeeService(EmployeeService delegate, EmployeeRepository employeeRepository,
+                                  EmployeeNameIndex employeeNameIndex, ShardRouter router) {
+        this.delegate = delegate;
+        this.employeeRepository = employeeRepository;
+        this.employeeNameIndex = employeeNameIndex;
+        this.router = router;
+        AtomicInteger threads = new AtomicInteger();
+        //Not bounded: every scatter needs one thread per shard at once, the connection pools bound the real work
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "shard-scatter-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        int shard = router.shardForEmail(employee.getEmail());
+        //An update may have moved an email away from its hash shard, the owning shard checks its own rows
+        checkEmailFree(employee.getEmail(), shard);
+        return ShardContext.run(shard, () -> delegate.saveEmployee(employee));
+    }
+
+    @Override
+    public List<Employee> saveEmployees(List<Employee> employees) {
+        Map<Integer, List<Employee>> byShard = employees.stream()
+                .collect(Collectors.groupingBy(employee -> router.shardForEmail(employee.getEmail()), TreeMap::new,
+                        Collectors.toList()));
+        //Fail before writing anything when an email exists anywhere, the shard batches then go in parallel
+        checkEmailsFree(employees.stream().map(Employee::getEmail).filter(Objects::nonNull).distinct().toList(), -1);
+        List<Integer> shards = List.copyOf(byShard.keySet());
+        List<CompletableFuture<List<Employee>>> results = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(
+                        () -> ShardContext.run(shard, () -> delegate.saveEmployees(byShard.get(shard))), executor))
+                .toList();
+
+        //Every shard commits on its own, so wait for all of them to know which rows made it
+        Map<Integer, Iterator<Employee>> savedByShard = new TreeMap<>();
+        RuntimeException failure = null;
+        for (int i = 0; i < shards.size(); i++) {
+            try {
+                savedByShard.put(shards.get(i), results.get(i).join().iterator());
+            } catch (CompletionException e) {
+                if(failure == null){
+                    failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+        }
+        if(failure != null && savedByShard.isEmpty()){
+            throw failure;
+        }
+
+        //Back to the request order
+        List<Employee> savedEmployees = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            Iterator<Employee> saved = savedByShard.get(router.shardForEmail(employee.getEmail()));
+            savedEmployees.add(saved == null ? null : saved.next());
+        }
+        if(failure != null){
+            throw new PartialSaveException("Employee batch was saved on some shards only", savedEmployees, failure);
+        }
+        return savedEmployees;
+    }
+
+    @Override
+    public List<EmployeeView> getAllEmployees() {
+        return scatter(shard -> delegate.getAllEmployees()).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(EmployeeView::id))
+                .toList();
+    }
+
+    @Override
+    public EmployeePage getEmployeesPage(String after, int limit, String sort) {
+        EmployeeSortKey sortKey = EmployeeSortKey.fromParam(sort);
+        //Every shard seeks past the same cursor, the first pageSize rows of the merge are the global page
+        return mergePages(scatter(shard -> delegate.getEmployeesPage(after, limit, sort)), pageSize(limit), sortKey);
+    }
+
+    @Override
+    public EmployeePage searchEmployees(String firstName, String lastName, String after, int limit) {
+        EmployeeSortKey sortKey = lastName != null && !lastName.isBlank() ? EmployeeSortKey.LAST_NAME : EmployeeSortKey.FIRST_NAME;
+        return mergePages(scatter(shard -> delegate.searchEmployees(firstName, lastName, after, limit)),
+                pageSize(limit), sortKey);
+    }
+
+    @Override
+    public List<EmployeeSuggestion> suggestEmployees(String prefix, int limit) {
+        //The in-memory name index is loaded from every shard already
+        if(employeeNameIndex.isEnabled()){
+            return delegate.suggestEmployees(prefix, limit);
+        }
+        return scatter(shard -> delegate.suggestEmployees(prefix, limit)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(EmployeeSuggestion::lastName, String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(EmployeeSuggestion::firstName, String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(EmployeeSuggestion::id))
+                .limit(Math.min(limit, EmployeeServiceImpl.MAX_SUGGESTIONS))
+                .toList();
+    }
+
+    @Override
+    public List<EmployeeSearchHit> fullTextSearch(String text, int limit) {
+        //One Lucene index holds every shard (tenant discriminator), so the scores are comparable
+        return scatter(shard -> delegate.fullTextSearch(text, limit)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(EmployeeSearchHit::score).reversed().thenComparing(EmployeeSearchHit::id))
+                .limit(pageSize(limit))
+                .toList();
+    }
+
+    @Override
+    public void reindexFullText() {
+        //The mass indexer already walks every configured tenant
+        delegate.reindexFullText();
+    }
+
+    @Override
+    public long exportEmployees(Consumer<EmployeeView> consumer) {
+        //Each shard streams in id order into a bounded queue, the caller thread merges the queue heads
+        List<BlockingQueue<Object>> queues = new ArrayList<>();
+        List<Future<?>> producers = new ArrayList<>();
+        router.shards().forEach(shard -> {
+            BlockingQueue<Object> queue = new ArrayBlockingQueue<>(EXPORT_BUFFER);
+            queues.add(queue);
+            producers.add(executor.submit(() -> {
+                Object last = END_OF_SHARD;
+                try {
+                    ShardContext.run(shard, () -> delegate.exportEmployees(view -> put(queue, view)));
+                } catch (RuntimeException e) {
+                    last = e;
+                }
+                put(queue, last);
+            }));
+        });
+
+        try {
+            PriorityQueue<ShardHead> heads = new PriorityQueue<>(Comparator.comparing(head -> head.view().id()));
+            for (BlockingQueue<Object> queue : queues) {
+                EmployeeView first = take(queue);
+                if(first != null){
+                    heads.add(new ShardHead(first, queue));
+                }
+            }
+            long count = 0;
+            while (!heads.isEmpty()) {
+                ShardHead head = heads.poll();
+                consumer.accept(head.view());
+                count++;
+                EmployeeView next = take(head.queue());
+                if(next != null){
+                    heads.add(new ShardHead(next, head.queue()));
+                }
+            }
+            return count;
+        } finally {
+            //Stops the shard queries when the consumer failed, e.g. the client went away
+            producers.forEach(producer -> producer.cancel(true));
+        }
+    }
+
+    private record ShardHead(EmployeeView view, BlockingQueue<Object> queue) {
+    }
+
+    private static void put(BlockingQueue<Object> queue, Object element) {
+        try {
+            queue.put(element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Export cancelled");
+        }
+    }
+
+    //null once the shard is exhausted
+    private static EmployeeView take(BlockingQueue<Object> queue) {
+        Object element;
+        try {
+            element = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Export interrupted");
+        }
+        if(element == END_OF_SHARD){
+            return null;
+        }
+        if(element instanceof RuntimeException failure){
+            throw failure;
+        }
+        return (EmployeeView) element;
+    }
+
+    @Override
+    public Optional<EmployeeView> getEmployeeById(Long id) {
+        return ShardContext.run(router.shardForId(id), () -> delegate.getEmployeeById(id));
+    }
+
+    @Override
+    public Map<Long, EmployeeView> getEmployeesById(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = ids.stream().filter(Objects::nonNull).distinct()
+                .collect(Collectors.groupingBy(router::shardForId, TreeMap::new, Collectors.toList()));
+        Map<Long, EmployeeView> employees = new HashMap<>();
+        scatter(List.copyOf(byShard.keySet()), shard -> delegate.getEmployeesById(byShard.get(shard)))
+                .forEach(employees::putAll);
+        return employees;
+    }
+
+    @Override
+    public Optional<Long> getEmployeeVersion(Long id) {
+        return ShardContext.run(router.shardForId(id), () -> delegate.getEmployeeVersion(id));
+    }
+
+    @Override
+    public EmployeeTableStats getEmployeeTableStats() {
+        List<EmployeeTableStats> stats = scatter(shard -> delegate.getEmployeeTableStats());
+        long count = stats.stream().mapToLong(shardStats -> shardStats.count() == null ? 0 : shardStats.count()).sum();
+        Long maxId = stats.stream().map(EmployeeTableStats::maxId).filter(Objects::nonNull)
+                .max(Comparator.naturalOrder()).orElse(null);
+        Instant lastModified = stats.stream().map(EmployeeTableStats::lastModified).filter(Objects::nonNull)
+                .max(Comparator.naturalOrder()).orElse(null);
+        return new EmployeeTableStats(count, maxId, lastModified);
+    }
+
+    @Override
+    public Optional<Employee> updateEmployee(Long id, Employee employee) {
+        int shard = router.shardForId(id);
+        checkEmailFreeForUpdate(employee.getEmail(), shard);
+        return ShardContext.run(shard, () -> delegate.updateEmployee(id, employee));
+    }
+
+    @Override
+    public Optional<Employee> patchEmployee(Long id, Map<String, Object> patch, Long expectedVersion) {
+        int shard = router.shardForId(id);
+        if(patch.get("email") instanceof String email){
+            checkEmailFreeForUpdate(email, shard);
+        }
+        return ShardContext.run(shard, () -> delegate.patchEmployee(id, patch, expectedVersion));
+    }
+
+    @Override
+    public boolean deleteEmployee(Long id) {
+        return ShardContext.run(router.shardForId(id), () -> delegate.deleteEmployee(id));
+    }
+
+    @Override
+    public EmployeeDeleteResult deleteEmployees(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = ids.stream().distinct()
+                .collect(Collectors.groupingBy(router::shardForId, TreeMap::new, Collectors.toList()));
+        List<Integer> shards = List.copyOf(byShard.keySet());
+        int deleted = scatter(shards, shard -> delegate.deleteEmployees(byShard.get(shard))).stream()
+                .mapToInt(EmployeeDeleteResult::deleted)
+                .sum();
+        return new EmployeeDeleteResult(byShard.values().stream().mapToInt(List::size).sum(), deleted);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    //A null email is left to the column constraint
+    private void checkEmailFree(String email, int exceptShard) {
+        if(email != null){
+            checkEmailsFree(List.of(email), exceptShard);
+        }
+    }
+
+    //Same check for updates, where a taken email is a conflict rather than a rejected new employee
+    private void checkEmailFreeForUpdate(String email, int exceptShard) {
+        if(email != null){
+            takenEmail(List.of(email), exceptShard).ifPresent(taken -> {
+                throw new DuplicateEmailException("Employee already exist with the given email:" + taken);
+            });
+        }
+    }
+
+    private void checkEmailsFree(List<String> emails, int exceptShard) {
+        takenEmail(emails, exceptShard).ifPresent(email -> {
+            throw new ResourceNotFoundException("Employee already exist with the given email:" + email);
+        });
+    }
+
+    //The unique index only covers its own shard; the owning shard (exceptShard) is left to the regular checks.
+    //Best effort: two shards can still accept the same email concurrently.
+    private Optional<String> takenEmail(List<String> emails, int exceptShard) {
+        List<Integer> shards = router.shards().filter(shard -> shard != exceptShard).boxed().toList();
+        for (int i = 0; i < emails.size(); i += EmployeeServiceImpl.BATCH_CHUNK_SIZE) {
+            List<String> chunk = emails.subList(i, Math.min(i + EmployeeServiceImpl.BATCH_CHUNK_SIZE, emails.size()));
+            Optional<String> taken = scatter(shards, shard -> employeeRepository.findExistingEmails(chunk)).stream()
+                    .flatMap(List::stream)
+                    .findFirst();
+            if(taken.isPresent()){
+                return taken;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static int pageSize(int limit) {
+        if(limit < 1){
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        return Math.min(limit, EmployeeServiceImpl.MAX_PAGE_SIZE);
+    }
+
+    //Shards return up to pageSize rows past the cursor, so the merge holds at least one full global page when any
+    //shard has more. Names are compared case-insensitively like the default MySQL collation.
+    private static EmployeePage mergePages(List<EmployeePage> pages, int pageSize, EmployeeSortKey sortKey) {
+        List<EmployeeView> rows = pages.stream()
+                .flatMap(page -> page.employees().stream())
+                .sorted(keysetOrder(sortKey))
+                .toList();
+        boolean more = rows.size() > pageSize || pages.stream().anyMatch(page -> page.nextCursor() != null);
+        if(!more){
+            return new EmployeePage(rows, null);
+        }
+        List<EmployeeView> page = rows.subList(0, pageSize);
+        EmployeeView last = page.get(pageSize - 1);
+        String value = switch (sortKey) {
+            case ID -> "";
+            case FIRST_NAME -> last.firstName();
+            case LAST_NAME -> last.lastName();
+        };
+        return new EmployeePage(page, new EmployeeCursor(sortKey, value, last.id()).encode());
+    }
+
+    private static Comparator<EmployeeView> keysetOrder(EmployeeSortKey sortKey) {
+        Comparator<EmployeeView> byId = Comparator.comparing(EmployeeView::id);
+        return switch (sortKey) {
+            case ID -> byId;
+            case FIRST_NAME -> Comparator.comparing(EmployeeView::firstName, String.CASE_INSENSITIVE_ORDER).thenComparing(byId);
+            case LAST_NAME -> Comparator.comparing(EmployeeView::lastName, String.CASE_INSENSITIVE_ORDER).thenComparing(byId);
+        };
+    }
+
+    private <T> List<T> scatter(IntFunction<T> action) {
+        return scatter(router.shards().boxed().toList(), action);
+    }
+
+    //Runs action on each shard in parallel, results in the order of shards
+    private <T> List<T> scatter(List<Integer> shards, IntFunction<T> action) {
+        if(shards.size() == 1){
+            int shard = shards.get(0);
+            return List.of(ShardContext.run(shard, () -> action.apply(shard)));
+        }
+        List<CompletableFuture<T>> results = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> ShardContext.run(shard, () -> action.apply(shard)), executor))
+                .toList();
+        try {
+            return results.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException cause){
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.orldev.springboot.shard;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+//The pooled sequence of each shard, spread into a global id space (see ShardRouter.encodeId). The optimizer keeps
+//one block per tenant, so JDBC batching is unchanged. With a single shard ids are exactly the sequence values.
+public class ShardedSequenceGenerator extends SequenceStyleGenerator {
+
+    //Copied into the Hibernate properties by ShardingConfig
+    public static final String SHARD_COUNT = "employees.sharding.shard-count";
+
+    private int shardCount = 1;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        super.configure(type, parameters, serviceRegistry);
+        Object configured = serviceRegistry.getService(ConfigurationService.class).getSettings().get(SHARD_COUNT);
+        if(configured != null){
+            shardCount = Integer.parseInt(configured.toString());
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        long localId = ((Number) super.generate(session, object)).longValue();
+        if(shardCount == 1){
+            return localId;
+        }
+        Object tenant = session.getTenantIdentifierValue();
+        return ShardRouter.encodeId(localId, tenant == null ? 0 : Integer.parseInt(tenant.toString()), shardCount);
+    }
+}
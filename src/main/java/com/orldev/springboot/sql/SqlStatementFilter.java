@@ -0,0 +1,143 @@
+package com.orldev.springboot.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Counts the SQL round trips of each request, reports them as metrics and optionally as debug response headers
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-SQL-Statement-Count";
+    public static final String STATEMENT_TIME_HEADER = "X-SQL-Statement-Time-Ms";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final boolean responseHeaders;
+    private final int nPlusOneThreshold;
+
+    public SqlStatementFilter(MeterRegistry meterRegistry, boolean responseHeaders, int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.responseHeaders = responseHeaders;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementStats stats = SqlStatementStats.start();
+        request.setAttribute(SqlStatementStats.REQUEST_ATTRIBUTE, stats);
+        StatsHeaderResponse statsResponse = responseHeaders ? new StatsHeaderResponse(response, stats) : null;
+        try {
+            filterChain.doFilter(request, statsResponse != null ? statsResponse : response);
+        } finally {
+            SqlStatementStats.stop();
+            if(statsResponse != null){
+                statsResponse.writeHeaders();
+            }
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementStats stats){
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+        DistributionSummary.builder("sql.statements.per.request")
+                .description("SQL round trips issued while handling one request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("sql.time.per.request")
+                .description("Time spent executing SQL while handling one request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getElapsed().toNanos(), TimeUnit.NANOSECONDS);
+
+        stats.getMostRepeatedSelect()
+                .filter(select -> select.getValue() >= nPlusOneThreshold)
+                .ifPresent(select -> reportNPlusOne(request, tags, select));
+    }
+
+    private void reportNPlusOne(HttpServletRequest request, Tags tags, Map.Entry<String, Integer> select){
+        Counter.builder("sql.n.plus.one")
+                .description("Requests that repeated the same SELECT at least n-plus-one-threshold times")
+                .tags(tags)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Possible N+1 in {} {}: the same SELECT ran {} times: {}",
+                request.getMethod(), request.getRequestURI(), select.getValue(), select.getKey());
+    }
+
+    //Headers have to be in place before the body commits the response, i.e. on the first body access
+    private static class StatsHeaderResponse extends HttpServletResponseWrapper {
+
+        private final SqlStatementStats stats;
+        private boolean written;
+
+        StatsHeaderResponse(HttpServletResponse response, SqlStatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void writeHeaders(){
+            if(!written && !isCommitted()){
+                setHeader(STATEMENT_COUNT_HEADER, String.valueOf(stats.getStatements()));
+                setHeader(STATEMENT_TIME_HEADER, String.valueOf(stats.getElapsed().toMillis()));
+            }
+            written = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
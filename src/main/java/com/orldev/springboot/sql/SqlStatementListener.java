@@ -0,0 +1,30 @@
+package com.orldev.springboot.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+//datasource-proxy listener feeding the current request's SqlStatementStats
+public class SqlStatementListener implements QueryExecutionListener {
+
+    private static final String START_NANOS = "sqlStatementStartNanos";
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if(SqlStatementStats.current() != null){
+            execInfo.addCustomValue(START_NANOS, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlStatementStats stats = SqlStatementStats.current();
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        if(stats == null || start == null){
+            return;
+        }
+        stats.record(queryInfoList.stream().map(QueryInfo::getQuery).toList(), System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,75 @@
+package com.orldev.springboot.sql;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+//SQL round trips issued by the current thread between start() and stop(), one instance per HTTP request
+public class SqlStatementStats {
+
+    public static final String REQUEST_ATTRIBUTE = SqlStatementStats.class.getName();
+
+    //only the first statements are kept, for diagnostics
+    private static final int MAX_RECORDED_STATEMENTS = 100;
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long elapsedNanos;
+    private final List<String> recorded = new ArrayList<>();
+    private final Map<String, Integer> selects = new HashMap<>();
+
+    public static SqlStatementStats start(){
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    //null when the thread is not inside a tracked request
+    public static SqlStatementStats current(){
+        return CURRENT.get();
+    }
+
+    public static void stop(){
+        CURRENT.remove();
+    }
+
+    //A JDBC batch is one round trip whatever the number of queries in it
+    void record(List<String> queries, long nanos){
+        statements++;
+        elapsedNanos += nanos;
+        String sql = String.join("; ", queries);
+        if(recorded.size() < MAX_RECORDED_STATEMENTS){
+            recorded.add(sql);
+        }
+        if(queries.size() == 1 && sql.regionMatches(true, 0, "select", 0, 6)){
+            selects.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    public List<String> getRecorded() {
+        return Collections.unmodifiableList(recorded);
+    }
+
+    //The SELECT executed most often with different parameters, the usual N+1 signature
+    public Optional<Map.Entry<String, Integer>> getMostRepeatedSelect() {
+        return selects.entrySet().stream().max(Map.Entry.comparingByValue());
+    }
+
+    @Override
+    public String toString() {
+        return statements + " statements in " + getElapsed().toMillis() + " ms" + recorded;
+    }
+}
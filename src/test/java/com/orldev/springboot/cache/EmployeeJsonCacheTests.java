@@ -0,0 +1,127 @@
+package com.orldev.springboot.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orldev.springboot.datasource.ReplicaRoutingDataSource;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.event.EmployeeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeJsonCacheTests {
+
+    private ObjectMapper objectMapper;
+
+    private EmployeeView employee;
+
+    @BeforeEach
+    public void setup(){
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        employee = new EmployeeView(2L, "Orlando", "Cruz", "orlandocruz999@gmail.com", 3L,
+                Instant.parse("2024-01-01T10:00:00Z"));
+    }
+
+    // JUnit test for caching the encoded body
+    @DisplayName("JUnit test for loading an employee once and serving its encoded JSON")
+    @Test
+    public void givenMiss_whenGetTwice_thenLoadedOnceWithSameBytesAsJackson() throws Exception {
+        //given - precondition or setup
+        EmployeeJsonCache cache = newCache(false);
+        AtomicInteger loads = new AtomicInteger();
+        byte[] expected = objectMapper.writeValueAsBytes(employee);
+
+        //when - action ir the behaviour we are going to test
+        Optional<EmployeeJsonCache.Entry> first = cache.get(2L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(employee);
+        });
+        Optional<EmployeeJsonCache.Entry> second = cache.get(2L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(employee);
+        });
+
+        //then  - verify the output
+        assertThat(loads).hasValue(1);
+        assertThat(first).hasValueSatisfying(entry -> {
+            assertThat(entry.json()).isEqualTo(expected);
+            assertThat(entry.gzip()).isNull();
+            assertThat(entry.version()).isEqualTo(3L);
+            assertThat(entry.lastModified()).isEqualTo(employee.lastModified());
+        });
+        assertThat(second.map(EmployeeJsonCache.Entry::json)).containsSame(first.get().json());
+        assertThat(cache.getIfPresent(2L)).isPresent();
+    }
+
+    // JUnit test for dropping entries on writes
+    @DisplayName("JUnit test for invalidating the encoded JSON on update and delete")
+    @Test
+    public void givenCachedEmployee_whenUpdatedOrDeleted_thenInvalidated(){
+        //given - precondition or setup
+        EmployeeJsonCache cache = newCache(false);
+        cache.get(2L, id -> Optional.of(employee));
+        cache.get(5L, id -> Optional.of(employee));
+
+        //when - action ir the behaviour we are going to test
+        cache.onEmployeeEvent(new EmployeeEvent(EmployeeEvent.Type.UPDATED, 2L, null));
+        cache.onEmployeeEvent(EmployeeEvent.deleted(5L));
+        Optional<EmployeeJsonCache.Entry> missing = cache.get(9L, id -> Optional.empty());
+
+        //then  - verify the output
+        assertThat(cache.getIfPresent(2L)).isEmpty();
+        assertThat(cache.getIfPresent(5L)).isEmpty();
+        assertThat(missing).isEmpty();
+        assertThat(cache.getIfPresent(9L)).isEmpty();
+    }
+
+    // JUnit test for loading from the primary only
+    @DisplayName("JUnit test for loading missing entries pinned to the primary")
+    @Test
+    public void givenMiss_whenGet_thenLoadedFromPrimaryOnly(){
+        //given - precondition or setup
+        EmployeeJsonCache cache = newCache(false);
+        AtomicBoolean pinnedDuringLoad = new AtomicBoolean();
+
+        //when - action ir the behaviour we are going to test
+        cache.get(2L, id -> {
+            pinnedDuringLoad.set(ReplicaRoutingDataSource.isPinnedToPrimary());
+            return Optional.of(employee);
+        });
+
+        //then  - verify the output
+        assertThat(pinnedDuringLoad).isTrue();
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+    }
+
+    // JUnit test for the gzip copy
+    @DisplayName("JUnit test for keeping a gzip copy of bodies above the minimum size")
+    @Test
+    public void givenGzipEnabled_whenGet_thenGzipDecodesToJson() throws Exception {
+        //given - precondition or setup
+        EmployeeJsonCache cache = newCache(true);
+
+        //when - action ir the behaviour we are going to test
+        EmployeeJsonCache.Entry entry = cache.get(2L, id -> Optional.of(employee)).orElseThrow();
+
+        //then  - verify the output
+        assertThat(entry.gzip()).isNotNull();
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(entry.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(entry.json());
+        }
+    }
+
+    private EmployeeJsonCache newCache(boolean gzip){
+        return new EmployeeJsonCache(true, 100, Duration.ofMinutes(10), gzip, 0, objectMapper, new SimpleMeterRegistry());
+    }
+}
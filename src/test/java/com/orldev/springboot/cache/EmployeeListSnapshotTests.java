@@ -0,0 +1,165 @@
+package com.orldev.springboot.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orldev.springboot.dto.EmployeeTableStats;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.event.EmployeeEvent;
+import com.orldev.springboot.service.EmployeeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+
+//The service is a mock holding an in memory table; chunks of 4 ids
+@ExtendWith(MockitoExtension.class)
+public class EmployeeListSnapshotTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private ObjectMapper objectMapper;
+
+    private EmployeeListSnapshot employeeListSnapshot;
+
+    private List<EmployeeView> table;
+
+    @BeforeEach
+    public void setup(){
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        employeeListSnapshot = new EmployeeListSnapshot(true, 4, 3, employeeService, objectMapper, new SimpleMeterRegistry());
+        table = new ArrayList<>(LongStream.rangeClosed(1, 10).mapToObj(id -> employee(id, "Employee" + id)).toList());
+        Mockito.lenient().when(employeeService.exportEmployees(any())).thenAnswer(invocation -> {
+            Consumer<EmployeeView> consumer = invocation.getArgument(0);
+            table.forEach(consumer);
+            return (long) table.size();
+        });
+        Mockito.lenient().when(employeeService.getEmployeesById(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return table.stream().filter(employee -> ids.contains(employee.id()))
+                    .collect(Collectors.toMap(EmployeeView::id, employee -> employee));
+        });
+    }
+
+    // JUnit test for the first snapshot
+    @DisplayName("JUnit test for encoding the whole list like Jackson on first use")
+    @Test
+    public void givenTable_whenCurrent_thenSameBytesAsJacksonList() throws Exception {
+        //given - precondition or setup
+
+        //when - action ir the behaviour we are going to test
+        EmployeeListSnapshot.Body body = employeeListSnapshot.current(stats());
+
+        //then  - verify the output
+        byte[] expected = objectMapper.writeValueAsBytes(table);
+        assertThat(body.getInputStream().readAllBytes()).isEqualTo(expected);
+        assertThat(body.contentLength()).isEqualTo(expected.length);
+        assertThat(body.getStats()).isEqualTo(stats());
+    }
+
+    // JUnit test for patching changed rows
+    @DisplayName("JUnit test for re-reading only the rows changed through this node")
+    @Test
+    public void givenWrites_whenCurrent_thenPatchedWithoutFullRebuild() throws Exception {
+        //given - precondition or setup
+        employeeListSnapshot.current(stats());
+        table.set(2, employee(3L, "Renamed"));
+        table.remove(employee(5L, "Employee5"));
+        table.add(employee(11L, "Employee11"));
+        employeeListSnapshot.onEmployeeEvent(new EmployeeEvent(EmployeeEvent.Type.UPDATED, 3L, null));
+        employeeListSnapshot.onEmployeeEvent(EmployeeEvent.deleted(5L));
+        employeeListSnapshot.onEmployeeEvent(new EmployeeEvent(EmployeeEvent.Type.CREATED, 11L, null));
+
+        //when - action ir the behaviour we are going to test
+        EmployeeListSnapshot.Body body = employeeListSnapshot.current(stats());
+
+        //then  - verify the output
+        assertThat(body.getInputStream().readAllBytes()).isEqualTo(objectMapper.writeValueAsBytes(table));
+        assertThat(body.getStats()).isEqualTo(stats());
+        BDDMockito.verify(employeeService, Mockito.times(1)).exportEmployees(any());
+        BDDMockito.verify(employeeService, Mockito.times(1)).getEmployeesById(any());
+        BDDMockito.verify(employeeService, Mockito.never()).getEmployeeById(any());
+    }
+
+    // JUnit test for writes the snapshot did not see
+    @DisplayName("JUnit test for rebuilding when the table stats no longer match")
+    @Test
+    public void givenWriteFromAnotherNode_whenCurrent_thenFullRebuild() throws Exception {
+        //given - precondition or setup
+        employeeListSnapshot.current(stats());
+        table.add(employee(12L, "Employee12"));
+
+        //when - action ir the behaviour we are going to test
+        EmployeeListSnapshot.Body body = employeeListSnapshot.current(stats());
+
+        //then  - verify the output
+        assertThat(body.getInputStream().readAllBytes()).isEqualTo(objectMapper.writeValueAsBytes(table));
+        assertThat(body.getStats().count()).isEqualTo(11L);
+        BDDMockito.verify(employeeService, Mockito.times(2)).exportEmployees(any());
+    }
+
+    // JUnit test for readers during a rebuild
+    @DisplayName("JUnit test for readers getting the previous body while another request rebuilds")
+    @Test
+    public void givenRebuildInProgress_whenCurrent_thenPreviousBodyWithoutWaiting() throws Exception {
+        //given - precondition or setup
+        employeeListSnapshot.current(stats());
+        byte[] previous = objectMapper.writeValueAsBytes(table);
+        table.add(employee(12L, "Employee12"));
+        CountDownLatch exporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BDDMockito.willAnswer(invocation -> {
+            exporting.countDown();
+            assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+            Consumer<EmployeeView> consumer = invocation.getArgument(0);
+            table.forEach(consumer);
+            return (long) table.size();
+        }).given(employeeService).exportEmployees(any());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<EmployeeListSnapshot.Body> rebuilding = executor.submit(() -> employeeListSnapshot.current(stats()));
+        assertThat(exporting.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //when - action ir the behaviour we are going to test
+        EmployeeListSnapshot.Body body = employeeListSnapshot.current(stats());
+        release.countDown();
+
+        //then  - verify the output
+        assertThat(body.getInputStream().readAllBytes()).isEqualTo(previous);
+        assertThat(body.getStats().count()).isEqualTo(10L);
+        assertThat(rebuilding.get(5, TimeUnit.SECONDS).getStats().count()).isEqualTo(11L);
+        executor.shutdown();
+    }
+
+    private EmployeeTableStats stats(){
+        return new EmployeeTableStats((long) table.size(),
+                table.stream().map(EmployeeView::id).max(Comparator.naturalOrder()).orElse(null),
+                table.stream().map(EmployeeView::lastModified).max(Comparator.naturalOrder()).orElse(null));
+    }
+
+    private static EmployeeView employee(Long id, String firstName){
+        return new EmployeeView(id, firstName, "Cruz", firstName.toLowerCase() + "@gmail.com", 0L,
+                Instant.parse("2024-01-01T10:00:00Z").plusSeconds(firstName.equals("Renamed") ? 3600 : id));
+    }
+}
@@ -0,0 +1,96 @@
+package com.orldev.springboot.coalesce;
+
+import com.orldev.springboot.dto.EmployeeView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeBatchLoaderTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    //Every id up to 10 exists
+    private final List<Collection<Long>> batches = new CopyOnWriteArrayList<>();
+
+    private final Function<Collection<Long>, Map<Long, EmployeeView>> batchCall = ids -> {
+        batches.add(List.copyOf(ids));
+        return ids.stream().filter(id -> id <= 10)
+                .collect(Collectors.toMap(id -> id, id -> new EmployeeView(id, "Employee" + id, "Cruz", null, 0L, null)));
+    };
+
+    @AfterEach
+    public void tearDown(){
+        executor.shutdownNow();
+    }
+
+    // JUnit test for merging lookups within the window
+    @DisplayName("JUnit test for lookups within the window sharing one batched query")
+    @Test
+    public void givenLookupsWithinWindow_whenLoad_thenOneBatchWithEveryId() throws Exception {
+        //given - precondition or setup
+        EmployeeBatchLoader loader = new EmployeeBatchLoader(Duration.ofMillis(200), 100, Duration.ofSeconds(5), meterRegistry);
+
+        //when - action ir the behaviour we are going to test
+        List<Future<Optional<EmployeeView>>> results = new ArrayList<>();
+        for (long id = 1; id <= 12; id++) {
+            long lookupId = id;
+            results.add(executor.submit(() -> loader.load(lookupId, batchCall)));
+        }
+
+        //then  - verify the output
+        for (int i = 0; i < results.size(); i++) {
+            Optional<EmployeeView> employee = results.get(i).get(5, TimeUnit.SECONDS);
+            if(i < 10){
+                assertThat(employee.map(EmployeeView::id)).contains(i + 1L);
+            }else{
+                assertThat(employee).isEmpty();
+            }
+        }
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(12);
+        assertThat(meterRegistry.get("employees.batch.loader.batch.size").summary().max()).isEqualTo(12);
+    }
+
+    // JUnit test for dispatching full batches early
+    @DisplayName("JUnit test for dispatching a full batch before the window ends")
+    @Test
+    public void givenMaxBatchSizeReached_whenLoad_thenDispatchedWithoutWaitingOutWindow() throws Exception {
+        //given - precondition or setup
+        EmployeeBatchLoader loader = new EmployeeBatchLoader(Duration.ofSeconds(30), 3, Duration.ofSeconds(5), meterRegistry);
+
+        //when - action ir the behaviour we are going to test
+        long start = System.nanoTime();
+        List<Future<Optional<EmployeeView>>> results = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            long lookupId = id;
+            results.add(executor.submit(() -> loader.load(lookupId, batchCall)));
+        }
+        for (Future<Optional<EmployeeView>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isPresent();
+        }
+
+        //then  - verify the output
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+}
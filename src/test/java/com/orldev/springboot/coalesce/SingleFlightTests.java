@@ -0,0 +1,138 @@
+package com.orldev.springboot.coalesce;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//The leader blocks on a latch, so the other callers are known to arrive while its lookup is in flight
+public class SingleFlightTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    public void tearDown(){
+        executor.shutdownNow();
+    }
+
+    // JUnit test for sharing one call between concurrent callers
+    @DisplayName("JUnit test for concurrent lookups of one key sharing a single call")
+    @Test
+    public void givenConcurrentCallers_whenExecute_thenOneCallAndSameResult() throws Exception {
+        //given - precondition or setup
+        SingleFlight<Long, Optional<String>> flight = new SingleFlight<>("test", Duration.ofSeconds(5), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<Optional<String>> leader = executor.submit(() -> flight.execute(1L, () -> {
+            calls.incrementAndGet();
+            await(release);
+            return Optional.of("orlando");
+        }));
+        awaitInFlight(1);
+
+        //when - action ir the behaviour we are going to test
+        List<Future<Optional<String>>> followers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            followers.add(executor.submit(() -> flight.execute(1L, () -> {
+                calls.incrementAndGet();
+                return Optional.of("other");
+            })));
+        }
+        String otherKey = flight.execute(2L, () -> Optional.of("maria")).orElseThrow();
+        //Followers have no observable waiting state, give them time to reach the flight
+        Thread.sleep(100);
+        release.countDown();
+
+        //then  - verify the output
+        assertThat(leader.get(5, TimeUnit.SECONDS)).contains("orlando");
+        for (Future<Optional<String>> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).contains("orlando");
+        }
+        assertThat(otherKey).isEqualTo("maria");
+        assertThat(calls).hasValue(1);
+        assertThat(count("leader")).isEqualTo(2);
+        assertThat(count("coalesced")).isEqualTo(10);
+    }
+
+    // JUnit test for sharing the leader's failure
+    @DisplayName("JUnit test for followers getting the leader's exception")
+    @Test
+    public void givenFailingCall_whenExecuteConcurrently_thenEveryCallerFails() throws Exception {
+        //given - precondition or setup
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> flight.execute(1L, () -> {
+            await(release);
+            throw new IllegalStateException("database down");
+        }));
+        awaitInFlight(1);
+
+        //when - action ir the behaviour we are going to test
+        Future<String> follower = executor.submit(() -> flight.execute(1L, () -> "not called"));
+        Thread.sleep(50);
+        release.countDown();
+
+        //then  - verify the output
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("database down");
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("database down");
+        assertThat(flight.execute(1L, () -> "recovered")).isEqualTo("recovered");
+    }
+
+    // JUnit test for a follower timing out
+    @DisplayName("JUnit test for a follower giving up while the leader keeps running")
+    @Test
+    public void givenSlowLeader_whenFollowerWaitTimesOut_thenFollowerFailsAndLeaderCompletes() throws Exception {
+        //given - precondition or setup
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofMillis(50), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> flight.execute(1L, () -> {
+            await(release);
+            return "orlando";
+        }));
+        awaitInFlight(1);
+
+        //when - action ir the behaviour we are going to test
+        //then  - verify the output
+        assertThatThrownBy(() -> flight.execute(1L, () -> "not called")).isInstanceOf(QueryTimeoutException.class);
+        flight.forget(1L);
+        assertThat(flight.execute(1L, () -> "fresh")).isEqualTo("fresh");
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("orlando");
+        assertThat(count("timeout")).isEqualTo(1);
+    }
+
+    private void awaitInFlight(int flights) throws InterruptedException {
+        while (meterRegistry.get("employees.single.flight.in.flight").gauge().value() < flights) {
+            Thread.sleep(5);
+        }
+    }
+
+    private double count(String outcome){
+        return meterRegistry.get("employees.single.flight.calls").tag("outcome", outcome).counter().count();
+    }
+
+    private static void await(CountDownLatch latch){
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
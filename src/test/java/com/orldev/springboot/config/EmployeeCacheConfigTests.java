@@ -0,0 +1,70 @@
+package com.orldev.springboot.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeCacheConfigTests {
+
+    private final EmployeeCacheConfig employeeCacheConfig = new EmployeeCacheConfig();
+
+    private final CacheManager defaultManager =
+            Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+
+    @AfterEach
+    public void tearDown(){
+        defaultManager.destroyCache(EmployeeCacheConfig.EMPLOYEE_REGION);
+    }
+
+    // JUnit test for the employee region ignoring a region already in the default manager
+    @DisplayName("JUnit test for the employee cache manager applying its settings when the default manager has the region")
+    @Test
+    public void givenRegionInDefaultManager_whenEmployeeCacheManager_thenOwnSettingsApplied(){
+        //given - precondition or setup
+        CaffeineConfiguration<Object, Object> other = new CaffeineConfiguration<>();
+        other.setMaximumSize(OptionalLong.of(5));
+        defaultManager.createCache(EmployeeCacheConfig.EMPLOYEE_REGION, other);
+
+        //when - action ir the behaviour we are going to test
+        CacheManager cacheManager = employeeCacheConfig.employeeCacheManager(100, Duration.ofMinutes(1),
+                EmployeeCacheConfig.ExpiryMode.AFTER_WRITE);
+
+        //then  - verify the output
+        try{
+            Cache<Object, Object> cache = cacheManager.getCache(EmployeeCacheConfig.EMPLOYEE_REGION);
+            @SuppressWarnings("unchecked")
+            CaffeineConfiguration<Object, Object> applied = cache.getConfiguration(CaffeineConfiguration.class);
+            assertThat(cacheManager).isNotSameAs(defaultManager);
+            assertThat(applied.getMaximumSize()).hasValue(100);
+            assertThat(applied.getExpireAfterWrite()).hasValue(Duration.ofMinutes(1).toNanos());
+        }finally{
+            cacheManager.close();
+        }
+    }
+
+    // JUnit test for closing the employee cache manager
+    @DisplayName("JUnit test for closing the employee cache manager leaving the default manager open")
+    @Test
+    public void givenEmployeeCacheManager_whenClose_thenDefaultManagerStillOpen(){
+        //given - precondition or setup
+        CacheManager cacheManager = employeeCacheConfig.employeeCacheManager(100, Duration.ofMinutes(1),
+                EmployeeCacheConfig.ExpiryMode.AFTER_ACCESS);
+
+        //when - action ir the behaviour we are going to test
+        cacheManager.close();
+
+        //then  - verify the output
+        assertThat(cacheManager.isClosed()).isTrue();
+        assertThat(defaultManager.isClosed()).isFalse();
+    }
+}
@@ -0,0 +1,75 @@
+package com.orldev.springboot.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orldev.springboot.model.Employee;
+import com.orldev.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Scrapes the real Prometheus registry, Boot tests turn metrics export off unless @AutoConfigureObservability is set
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:metrics;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class MetricsConfigTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @AfterEach
+    public void tearDown(){
+        employeeRepository.deleteAll();
+    }
+
+    // JUnit test for the Prometheus scrape after serving requests
+    @DisplayName("JUnit test for the prometheus endpoint exposing service, repository, Hibernate and Hikari metrics")
+    @Test
+    public void givenServedRequests_whenScrapePrometheus_thenApplicationMetricsExposed() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Orlando")
+                .lastName("Cruz")
+                .email("orlandocruz999@gmail.com")
+                .build();
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employees"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        //when - action ir the behaviour we are going to test
+        String scrape = mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        //then  - verify the output
+        assertThat(scrape)
+                .contains("employees_service_seconds_bucket{")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("hibernate_query_executions_total{")
+                .contains("hikaricp_connections_pending{")
+                .contains("hikaricp_connections_acquire_seconds_bucket{")
+                .contains("application=\"spring-boot-testing\"");
+    }
+}
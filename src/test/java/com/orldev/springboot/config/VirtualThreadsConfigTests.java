@@ -0,0 +1,101 @@
+package com.orldev.springboot.config;
+
+import com.orldev.springboot.datasource.ReplicaRoutingDataSource;
+import com.orldev.springboot.datasource.ReplicaSet;
+import com.orldev.springboot.shard.ShardConnectionProvider;
+import com.zaxxer.hikari.HikariDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//Pools are never started, only their settings are read
+@ExtendWith(MockitoExtension.class)
+public class VirtualThreadsConfigTests {
+
+    @Mock
+    private ReplicaSet replicaSet;
+
+    private final HikariDataSource primary = pool("primary", 2000);
+    private final HikariDataSource replica = pool("replica-1", 30000);
+    private final HikariDataSource shard = pool("shard-1", 10000);
+
+    @AfterEach
+    public void tearDown(){
+        primary.close();
+        replica.close();
+        shard.close();
+    }
+
+    // JUnit test for the Java version check
+    @DisplayName("JUnit test for virtual threads refusing to start before Java 21")
+    @Test
+    public void givenJavaVersion_whenCheckJavaVersion_thenOnlyJava21AndLaterAccepted(){
+        //given - precondition or setup
+
+        //when - action ir the behaviour we are going to test
+        //then  - verify the output
+        assertThatThrownBy(() -> VirtualThreadsConfig.checkJavaVersion(Runtime.Version.parse("17.0.9")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Java 21");
+        assertThatCode(() -> VirtualThreadsConfig.checkJavaVersion(Runtime.Version.parse("21.0.2")))
+                .doesNotThrowAnyException();
+    }
+
+    // JUnit test for the pool guardrail behind replica routing and shards
+    @DisplayName("JUnit test for the pool guardrail checking every pool behind replica routing and shard proxies")
+    @Test
+    public void givenRoutedReplicasAndShards_whenCheckPools_thenEverySlowPoolReported(){
+        //given - precondition or setup
+        BDDMockito.given(replicaSet.getPrimary()).willReturn(primary);
+        BDDMockito.given(replicaSet.getReplicas()).willReturn(Map.of("replica-1", replica));
+        DataSource routed = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaSet));
+        DataSource proxiedShard = ProxyDataSourceBuilder.create(shard).name("shard-1").build();
+        ShardConnectionProvider shards = new ShardConnectionProvider(List.of(routed, proxiedShard));
+
+        //when - action ir the behaviour we are going to test
+        List<HikariDataSource> pools = VirtualThreadsConfig.hikariPools(routed, replicaSet, shards);
+        List<String> slow = VirtualThreadsConfig.checkPools(pools, Duration.ofSeconds(5));
+
+        //then  - verify the output
+        assertThat(pools).containsExactly(primary, replica, shard);
+        assertThat(slow).containsExactly("replica-1", "shard-1");
+    }
+
+    // JUnit test for the pool guardrail on a single pool
+    @DisplayName("JUnit test for the pool guardrail accepting a fail-fast application pool")
+    @Test
+    public void givenFailFastPool_whenCheckPools_thenNothingReported(){
+        //given - precondition or setup
+
+        //when - action ir the behaviour we are going to test
+        List<HikariDataSource> pools = VirtualThreadsConfig.hikariPools(primary, null, null);
+        List<String> slow = VirtualThreadsConfig.checkPools(pools, Duration.ofSeconds(5));
+
+        //then  - verify the output
+        assertThat(pools).containsExactly(primary);
+        assertThat(slow).isEmpty();
+    }
+
+    private static HikariDataSource pool(String name, long connectionTimeout){
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl("jdbc:h2:mem:" + name);
+        pool.setConnectionTimeout(connectionTimeout);
+        return pool;
+    }
+}
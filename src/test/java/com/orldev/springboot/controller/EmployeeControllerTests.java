@@ -1,6 +1,22 @@
 package com.orldev.springboot.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orldev.springboot.cache.EmployeeJsonCache;
+import com.orldev.springboot.cache.EmployeeListSnapshot;
+import com.orldev.springboot.config.BinaryFormatsConfig;
+import com.orldev.springboot.datasource.ReplicaRoutingDataSource;
+import com.orldev.springboot.dto.EmployeeDeleteResult;
+import com.orldev.springboot.dto.EmployeePage;
+import com.orldev.springboot.dto.EmployeeSearchHit;
+import com.orldev.springboot.dto.EmployeeSuggestion;
+import com.orldev.springboot.dto.EmployeeTableStats;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.dto.IngestStatus;
+import com.orldev.springboot.exception.DuplicateEmailException;
+import com.orldev.springboot.exception.ResourceConflictException;
+import com.orldev.springboot.feed.EmployeeChangeFeed;
+import com.orldev.springboot.ingest.EmployeeIngestQueue;
 import com.orldev.springboot.model.Employee;
 import com.orldev.springboot.repository.EmployeeRepository;
 import com.orldev.springboot.service.EmployeeService;
@@ -14,23 +30,37 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 
 @WebMvcTest
 @ExtendWith(MockitoExtension.class)
+@Import(BinaryFormatsConfig.class)
 public class EmployeeControllerTests {
 
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -40,6 +70,18 @@ public class EmployeeControllerTests {
     @MockBean
     private EmployeeRepository employeeRepository;
 
+    @MockBean
+    private EmployeeIngestQueue employeeIngestQueue;
+
+    @MockBean
+    private EmployeeJsonCache employeeJsonCache;
+
+    @MockBean
+    private EmployeeListSnapshot employeeListSnapshot;
+
+    @MockBean
+    private EmployeeChangeFeed employeeChangeFeed;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -76,6 +118,72 @@ public class EmployeeControllerTests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(employee.getEmail())));
     }
 
+    // JUnit test for queueing an Employee of an asynchronous post request
+    @DisplayName("JUnit test for queueing an Employee of an asynchronous post request")
+    @Test
+    public void givenRespondAsync_whenCreateEmployee_thenReturnAcceptedWithTrackingId() throws Exception {
+        //given - precondition or setup
+        IngestStatus status = IngestStatus.queued("3f2b", Instant.parse("2024-01-15T10:00:00Z"));
+        BDDMockito.given(employeeIngestQueue.isEnabled()).willReturn(true);
+        BDDMockito.given(employeeIngestQueue.submit(any(Employee.class))).willReturn(Optional.of(status));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.LOCATION, "/api/employees/ingest/3f2b"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.trackingId", CoreMatchers.is("3f2b")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.state", CoreMatchers.is("QUEUED")));
+        BDDMockito.verify(employeeService, Mockito.never()).saveEmployee(any(Employee.class));
+    }
+
+    // JUnit test for backpressure on an asynchronous post request
+    @DisplayName("JUnit test for backpressure on an asynchronous post request")
+    @Test
+    public void givenFullIngestQueue_whenCreateEmployee_thenReturnServiceUnavailable() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeIngestQueue.isEnabled()).willReturn(true);
+        BDDMockito.given(employeeIngestQueue.submit(any(Employee.class))).willReturn(Optional.empty());
+        BDDMockito.given(employeeIngestQueue.getRetryAfter()).willReturn(Duration.ofSeconds(2));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "2"));
+    }
+
+    // JUnit test for polling the status of a queued Employee
+    @DisplayName("JUnit test for polling the status of a queued Employee")
+    @Test
+    public void givenTrackingId_whenGetIngestStatus_thenReturnStatus() throws Exception {
+        //given - precondition or setup
+        IngestStatus status = IngestStatus.queued("3f2b", Instant.parse("2024-01-15T10:00:00Z"))
+                .saved(42L, Instant.parse("2024-01-15T10:00:01Z"));
+        BDDMockito.given(employeeIngestQueue.getStatus("3f2b")).willReturn(Optional.of(status));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/ingest/{trackingId}", "3f2b"));
+        ResultActions unknown = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/ingest/{trackingId}", "nope"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.state", CoreMatchers.is("SAVED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employeeId", CoreMatchers.is(42)));
+        unknown.andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
     // JUnit test for get all Employees of get request
     @DisplayName("JUnit test for get all Employees of get request")
     @Test
@@ -89,8 +197,11 @@ public class EmployeeControllerTests {
 
         List<Employee> employeeList = List.of(employee, employee1);
 
+        BDDMockito.given(employeeService.getEmployeeTableStats())
+                .willReturn(new EmployeeTableStats(2L, 2L, null));
+
         BDDMockito.given(employeeService.getAllEmployees())
-                .willReturn(employeeList);
+                .willReturn(employeeList.stream().map(EmployeeView::of).toList());
 
         //when - action ir the behaviour we are going to test
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees"));
@@ -111,7 +222,7 @@ public class EmployeeControllerTests {
         Long id = 2L;
 
         BDDMockito.given(employeeService.getEmployeeById(id))
-                .willReturn(Optional.of(employee));
+                .willReturn(Optional.of(EmployeeView.of(employee)));
 
         //when - action ir the behaviour we are going to test
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", id));
@@ -124,6 +235,72 @@ public class EmployeeControllerTests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(employee.getEmail())));
     }
 
+    // JUnit test for get Employee by id in CBOR
+    @DisplayName("JUnit test for get Employee by id of get request accepting CBOR")
+    @Test
+    public void givenAcceptCbor_whenGetEmployeeById_thenReturnCborEmployee() throws Exception {
+        //given - precondition or setup
+        Long id = 2L;
+        ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
+        BDDMockito.given(employeeService.getEmployeeById(id))
+                .willReturn(Optional.of(EmployeeView.of(employee)));
+
+        //when - action ir the behaviour we are going to test
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", id)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        //then  - verify the output
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        EmployeeView view = cborMapper.readValue(result.getResponse().getContentAsByteArray(), EmployeeView.class);
+        assertThat(view.email()).isEqualTo(employee.getEmail());
+    }
+
+    // JUnit test for batch save Employees in Smile
+    @DisplayName("JUnit test for batch save Employees of post request in Smile")
+    @Test
+    public void givenSmileBody_whenCreateEmployees_thenReturnSmileEmployees() throws Exception {
+        //given - precondition or setup
+        ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+
+        BDDMockito.given(employeeService.saveEmployees(ArgumentMatchers.anyList()))
+                .willAnswer((invocation -> invocation.getArgument(0)));
+
+        //when - action ir the behaviour we are going to test
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/batch")
+                        .contentType(SMILE)
+                        .accept(SMILE)
+                        .content(smileMapper.writeValueAsBytes(List.of(employee))))
+                .andReturn();
+
+        //then  - verify the output
+        assertThat(result.getResponse().getStatus()).isEqualTo(201);
+        List<Employee> saved = smileMapper.readValue(result.getResponse().getContentAsByteArray(),
+                new TypeReference<List<Employee>>() {});
+        assertThat(saved).extracting(Employee::getEmail).containsExactly(employee.getEmail());
+    }
+
+    // JUnit test for JSON as the default representation
+    @DisplayName("JUnit test for get Employee by id of get request accepting anything")
+    @Test
+    public void givenAcceptAny_whenGetEmployeeById_thenReturnJson() throws Exception {
+        //given - precondition or setup
+        Long id = 2L;
+
+        BDDMockito.given(employeeService.getEmployeeById(id))
+                .willReturn(Optional.of(EmployeeView.of(employee)));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", id)
+                .accept(MediaType.ALL));
+
+        //then  - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON));
+    }
+
     //Negative scenario
     // JUnit test for get Employee by id get request
     @DisplayName("JUnit test for get Employee by id of get request")
@@ -208,11 +385,11 @@ public class EmployeeControllerTests {
     // JUnit test for delete Employee delete request
     @DisplayName("JUnit test for delete Employee delete request")
     @Test
-    public void givenEmployeeId_whenDeleteEmployee_thenReturnString() throws Exception {
+    public void givenEmployeeId_whenDeleteEmployee_thenReturnNoContent() throws Exception {
         //given - precondition or setup
         Long id = 1L;
 
-        BDDMockito.willDoNothing().given(employeeService).deleteEmployee(id);
+        BDDMockito.given(employeeService.deleteEmployee(id)).willReturn(true);
 
         //when - action ir the behaviour we are going to test
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees/{id}", id));
@@ -220,8 +397,567 @@ public class EmployeeControllerTests {
 
         //then  - verify the output
         response.andDo(MockMvcResultHandlers.print())
-                .andExpect(MockMvcResultMatchers.status().isOk());
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+    }
+
+    // JUnit test for delete Employee delete request with a missing id
+    @DisplayName("JUnit test for delete Employee delete request with a missing id")
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturnNotFound() throws Exception {
+        //given - precondition or setup
+        Long id = 1L;
+
+        BDDMockito.given(employeeService.deleteEmployee(id)).willReturn(false);
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees/{id}", id));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    // JUnit test for bulk delete Employees delete request
+    @DisplayName("JUnit test for bulk delete Employees delete request")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeService.deleteEmployees(List.of(1L, 2L, 3L)))
+                .willReturn(new EmployeeDeleteResult(3, 2));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees")
+                .param("ids", "1,2,3"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.requested", CoreMatchers.is(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted", CoreMatchers.is(2)));
+    }
+
+    // JUnit test for multi-get Employees get request
+    @DisplayName("JUnit test for multi-get Employees of get request in request order with not-found markers")
+    @Test
+    public void givenEmployeeIds_whenGetEmployeesById_thenReturnLookupsInRequestOrder() throws Exception {
+        //given - precondition or setup
+        employee.setId(3L);
+
+        BDDMockito.given(employeeService.getEmployeesById(List.of(3L, 9L, 3L)))
+                .willReturn(Map.of(3L, EmployeeView.of(employee)));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+                .param("ids", "3,9,3"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].found", CoreMatchers.is(true)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].employee.email", CoreMatchers.is(employee.getEmail())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].id", CoreMatchers.is(9)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].found", CoreMatchers.is(false)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].id", CoreMatchers.is(3)));
+        BDDMockito.verify(employeeService, Mockito.never()).getAllEmployees();
+    }
+
+    // JUnit test for get Employees page of get request
+    @DisplayName("JUnit test for get Employees page of get request")
+    @Test
+    public void givenCursorAndLimit_whenGetEmployeesPage_thenReturnPageWithNextCursor() throws Exception {
+        //given - precondition or setup
+        EmployeePage page = new EmployeePage(List.of(EmployeeView.of(employee)), "next");
+
+        BDDMockito.given(employeeService.getEmployeesPage("abc", 1, "lastName"))
+                .willReturn(page);
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+                .param("after", "abc")
+                .param("limit", "1")
+                .param("sort", "lastName"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employees.size()", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor", CoreMatchers.is("next")));
+    }
+
+    // JUnit test for get Employees page of get request with a bad cursor
+    @DisplayName("JUnit test for get Employees page of get request with a bad cursor")
+    @Test
+    public void givenInvalidCursor_whenGetEmployeesPage_thenReturnBadRequest() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeService.getEmployeesPage("bad", 10, "id"))
+                .willThrow(new IllegalArgumentException("Malformed cursor: bad"));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+                .param("after", "bad")
+                .param("limit", "10"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    // JUnit test for search Employees of get request
+    @DisplayName("JUnit test for search Employees of get request")
+    @Test
+    public void givenNamePrefixes_whenSearchEmployees_thenReturnPage() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeService.searchEmployees("Or", "Cr", null, 20))
+                .willReturn(new EmployeePage(List.of(EmployeeView.of(employee)), null));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/search")
+                .param("firstName", "Or")
+                .param("lastName", "Cr"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employees[0].email", CoreMatchers.is(employee.getEmail())));
+    }
+
+    // JUnit test for search Employees of get request without a name
+    @DisplayName("JUnit test for search Employees of get request without a name")
+    @Test
+    public void givenNoNamePrefix_whenSearchEmployees_thenReturnBadRequest() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeService.searchEmployees(null, null, null, 20))
+                .willThrow(new IllegalArgumentException("Search needs a firstName or lastName prefix"));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/search"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    // JUnit test for autocomplete of get request
+    @DisplayName("JUnit test for autocomplete of get request")
+    @Test
+    public void givenPrefix_whenAutocomplete_thenReturnSuggestions() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeService.suggestEmployees("orl", 10))
+                .willReturn(List.of(new EmployeeSuggestion(1L, "Orlando", "Cruz")));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/autocomplete")
+                .param("prefix", "orl"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].firstName", CoreMatchers.is("Orlando")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].lastName", CoreMatchers.is("Cruz")));
+    }
+
+    // JUnit test for full-text search of get request
+    @DisplayName("JUnit test for full-text search of get request")
+    @Test
+    public void givenQuery_whenFullTextSearch_thenReturnHits() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeService.fullTextSearch("orlnado", 20))
+                .willReturn(List.of(new EmployeeSearchHit(1L, "Orlando", "Cruz", "orlandocruz999@gmail.com", 1.5f)));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/fulltext")
+                .param("q", "orlnado"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].email", CoreMatchers.is("orlandocruz999@gmail.com")));
     }
 
+    // JUnit test for full-text reindex of post request
+    @DisplayName("JUnit test for full-text reindex of post request")
+    @Test
+    public void givenReindexRequest_whenReindexFullText_thenReturnAccepted() throws Exception {
+        //given - precondition or setup
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/fulltext/reindex"));
 
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isAccepted());
+        BDDMockito.then(employeeService).should().reindexFullText();
+    }
+
+    // JUnit test for export Employees of get request
+    @DisplayName("JUnit test for export Employees of get request")
+    @Test
+    public void givenListOfEmployees_whenExportEmployees_thenReturnNdjsonLines() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeService.exportEmployees(any()))
+                .willAnswer(invocation -> {
+                    Consumer<EmployeeView> consumer = invocation.getArgument(0);
+                    consumer.accept(EmployeeView.of(employee));
+                    consumer.accept(EmployeeView.of(employee));
+                    return 2L;
+                });
+
+        //when - action ir the behaviour we are going to test
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+
+        //then  - verify the output
+        String line = objectMapper.writeValueAsString(EmployeeView.of(employee));
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string(line + "\n" + line + "\n"));
+    }
+
+    // JUnit test for batch save Employees post request
+    @DisplayName("JUnit test for batch save Employees of post request")
+    @Test
+    public void givenListOfEmployees_whenCreateEmployees_thenReturnSavedEmployees() throws Exception {
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Maria")
+                .lastName("Sousa")
+                .email("mariasousa@gmail.com")
+                .build();
+
+        BDDMockito.given(employeeService.saveEmployees(BDDMockito.anyList()))
+                .willAnswer((invocation -> invocation.getArgument(0)));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(employee, employee1))));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].email", CoreMatchers.is(employee1.getEmail())));
+    }
+
+    // JUnit test for get Employee by id get request with validators
+    @DisplayName("JUnit test for get Employee by id of get request with validators")
+    @Test
+    public void givenVersionedEmployee_whenGetEmployeeById_thenReturnETagAndLastModified() throws Exception {
+        //given - precondition or setup
+        Long id = 2L;
+        employee.setVersion(3L);
+        employee.setLastModified(Instant.parse("2024-01-01T10:00:00Z"));
+
+        BDDMockito.given(employeeService.getEmployeeById(id))
+                .willReturn(Optional.of(EmployeeView.of(employee)));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", id));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+
+    // JUnit test for conditional get Employee by id get request
+    @DisplayName("JUnit test for conditional get Employee by id of get request")
+    @Test
+    public void givenMatchingETag_whenGetEmployeeById_thenReturnNotModifiedWithoutLoading() throws Exception {
+        //given - precondition or setup
+        Long id = 2L;
+
+        BDDMockito.given(employeeService.getEmployeeVersion(id))
+                .willReturn(Optional.of(3L));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", id)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        BDDMockito.verify(employeeService, Mockito.never()).getEmployeeById(id);
+    }
+
+    // JUnit test for conditional get all Employees get request
+    @DisplayName("JUnit test for conditional get all Employees of get request")
+    @Test
+    public void givenUnchangedTable_whenGetAllEmployees_thenReturnNotModified() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeService.getEmployeeTableStats())
+                .willReturn(new EmployeeTableStats(2L, 7L, Instant.ofEpochMilli(1000)));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"2-7-1000\""));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+        BDDMockito.verify(employeeService, Mockito.never()).getAllEmployees();
+    }
+
+    // JUnit test for update Employee put request with a stale ETag
+    @DisplayName("JUnit test for update Employee put request with a stale ETag")
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturnConflict() throws Exception {
+        //given - precondition or setup
+        Long id = 1L;
+
+        BDDMockito.given(employeeService.updateEmployee(anyLong(), any(Employee.class)))
+                .willThrow(new ResourceConflictException("Employee was modified concurrently, id: 1"));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+        BDDMockito.verify(employeeService).updateEmployee(BDDMockito.eq(id),
+                BDDMockito.argThat(updated -> updated.getVersion() == 2L));
+    }
+
+    // JUnit test for update Employee put request with a taken email
+    @DisplayName("JUnit test for update Employee put request with an email another Employee has")
+    @Test
+    public void givenTakenEmail_whenUpdateEmployee_thenReturnConflict() throws Exception {
+        //given - precondition or setup
+        Long id = 1L;
+
+        BDDMockito.given(employeeService.updateEmployee(anyLong(), any(Employee.class)))
+                .willThrow(new DuplicateEmailException("Employee already exist with the given email:" + employee.getEmail()));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
+    // JUnit test for patch Employee patch request with a taken email
+    @DisplayName("JUnit test for patch Employee patch request with an email another Employee has")
+    @Test
+    public void givenTakenEmail_whenPatchEmployee_thenReturnConflict() throws Exception {
+        //given - precondition or setup
+        Long id = 1L;
+
+        BDDMockito.given(employeeService.patchEmployee(id, Map.of("email", "mariasilva21@gmail.com"), null))
+                .willThrow(new DuplicateEmailException("Employee already exist with the given email:mariasilva21@gmail.com"));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.patch("/api/employees/{id}", id)
+                .contentType("application/merge-patch+json")
+                .content("{\"email\":\"mariasilva21@gmail.com\"}"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
+    // JUnit test for patch Employee patch request
+    @DisplayName("JUnit test for patch Employee patch request")
+    @Test
+    public void givenMergePatch_whenPatchEmployee_thenReturnPatchedEmployee() throws Exception {
+        //given - precondition or setup
+        Long id = 1L;
+        employee.setLastName("Silva");
+        employee.setVersion(4L);
+
+        BDDMockito.given(employeeService.patchEmployee(id, Map.of("lastName", "Silva"), 3L))
+                .willReturn(Optional.of(employee));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.patch("/api/employees/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType("application/merge-patch+json")
+                .content("{\"lastName\":\"Silva\"}"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.lastName", CoreMatchers.is("Silva")));
+    }
+
+    // JUnit test for get Employee by id served from the JSON cache
+    @DisplayName("JUnit test for get Employee by id of get request from the encoded JSON cache")
+    @Test
+    public void givenJsonCache_whenGetEmployeeById_thenWriteCachedBytes() throws Exception {
+        //given - precondition or setup
+        Long id = 2L;
+        byte[] json = "{\"id\":2,\"email\":\"cached@gmail.com\"}".getBytes(StandardCharsets.UTF_8);
+
+        BDDMockito.given(employeeJsonCache.isEnabled()).willReturn(true);
+        BDDMockito.given(employeeJsonCache.getIfPresent(id)).willReturn(Optional.empty());
+        BDDMockito.given(employeeJsonCache.get(ArgumentMatchers.eq(id), any()))
+                .willReturn(Optional.of(new EmployeeJsonCache.Entry(json, null, 3L, Instant.parse("2024-01-01T10:00:00Z"))));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", id)
+                .accept(MediaType.APPLICATION_JSON));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.content().bytes(json))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.LAST_MODIFIED));
+        BDDMockito.verify(employeeService, Mockito.never()).getEmployeeById(id);
+    }
+
+    // JUnit test for get Employee by id of a client pinned to the primary
+    @DisplayName("JUnit test for get Employee by id of get request bypassing the JSON cache after a write")
+    @Test
+    public void givenPinnedToPrimary_whenGetEmployeeById_thenSkipJsonCache() throws Exception {
+        //given - precondition or setup
+        Long id = 2L;
+        employee.setId(id);
+
+        BDDMockito.given(employeeJsonCache.isEnabled()).willReturn(true);
+        BDDMockito.given(employeeService.getEmployeeById(id)).willReturn(Optional.of(EmployeeView.of(employee)));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response;
+        //MockMvc runs the request on the test thread, as the read-your-writes filter would have pinned it
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", id)
+                    .accept(MediaType.APPLICATION_JSON));
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.firstName", CoreMatchers.is(employee.getFirstName())));
+        BDDMockito.verify(employeeJsonCache, Mockito.never()).getIfPresent(id);
+        BDDMockito.verify(employeeJsonCache, Mockito.never()).get(anyLong(), any());
+    }
+
+    // JUnit test for get Employee by id served precompressed
+    @DisplayName("JUnit test for get Employee by id of get request accepting gzip")
+    @Test
+    public void givenGzipEntry_whenGetEmployeeByIdAcceptingGzip_thenWriteCompressedBytes() throws Exception {
+        //given - precondition or setup
+        Long id = 2L;
+        byte[] json = "{}".getBytes(StandardCharsets.UTF_8);
+        byte[] gzip = {31, -117, 8, 0};
+
+        BDDMockito.given(employeeJsonCache.isEnabled()).willReturn(true);
+        BDDMockito.given(employeeJsonCache.getIfPresent(id))
+                .willReturn(Optional.of(new EmployeeJsonCache.Entry(json, gzip, 3L, null)));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", id)
+                .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1, gzip;q=0.8"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(MockMvcResultMatchers.content().bytes(gzip));
+        BDDMockito.verify(employeeJsonCache, Mockito.never()).get(anyLong(), any());
+    }
+
+    // JUnit test for get Employee by id in CBOR bypassing the JSON cache
+    @DisplayName("JUnit test for get Employee by id of get request accepting CBOR with the JSON cache")
+    @Test
+    public void givenJsonCacheAndAcceptCbor_whenGetEmployeeById_thenEncodeCbor() throws Exception {
+        //given - precondition or setup
+        Long id = 2L;
+
+        BDDMockito.given(employeeJsonCache.isEnabled()).willReturn(true);
+        BDDMockito.given(employeeJsonCache.getIfPresent(id)).willReturn(Optional.empty());
+        BDDMockito.given(employeeService.getEmployeeById(id))
+                .willReturn(Optional.of(EmployeeView.of(employee)));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", id)
+                .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR));
+        BDDMockito.verify(employeeJsonCache, Mockito.never()).get(anyLong(), any());
+    }
+
+    // JUnit test for get all Employees served from the list snapshot
+    @DisplayName("JUnit test for get all Employees of get request from the encoded list snapshot")
+    @Test
+    public void givenListSnapshot_whenGetAllEmployees_thenWriteSnapshotWithItsETag() throws Exception {
+        //given - precondition or setup
+        EmployeeTableStats stats = new EmployeeTableStats(2L, 7L, Instant.ofEpochMilli(1000));
+        List<byte[]> parts = List.of("[".getBytes(StandardCharsets.UTF_8), "{\"id\":3},{\"id\":7}".getBytes(StandardCharsets.UTF_8),
+                "]".getBytes(StandardCharsets.UTF_8));
+
+        BDDMockito.given(employeeService.getEmployeeTableStats()).willReturn(stats);
+        BDDMockito.given(employeeListSnapshot.isEnabled()).willReturn(true);
+        BDDMockito.given(employeeListSnapshot.current(stats)).willReturn(new EmployeeListSnapshot.Body(stats, parts));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"2-7-1000\""))
+                .andExpect(MockMvcResultMatchers.header().longValue(HttpHeaders.CONTENT_LENGTH, 19))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].id", CoreMatchers.is(7)));
+        BDDMockito.verify(employeeService, Mockito.never()).getAllEmployees();
+    }
+
+    // JUnit test for subscribing to the change feed
+    @DisplayName("JUnit test for change feed get request resuming from Last-Event-ID")
+    @Test
+    public void givenLastEventId_whenStreamChanges_thenSubscribedAndStreamStarted() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeChangeFeed.isEnabled()).willReturn(true);
+        BDDMockito.given(employeeChangeFeed.subscribe("1700000000000-41")).willReturn(Optional.of(new SseEmitter()));
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/changes")
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .header("Last-Event-ID", "1700000000000-41"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.request().asyncStarted());
+        BDDMockito.verify(employeeChangeFeed).subscribe("1700000000000-41");
+    }
+
+    // JUnit test for a full change feed
+    @DisplayName("JUnit test for change feed get request refused with Retry-After at max subscribers")
+    @Test
+    public void givenFeedAtCapacity_whenStreamChanges_thenServiceUnavailable() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeChangeFeed.isEnabled()).willReturn(true);
+        BDDMockito.given(employeeChangeFeed.getRetryAfter()).willReturn(Duration.ofSeconds(5));
+        BDDMockito.given(employeeChangeFeed.subscribe(null)).willReturn(Optional.empty());
+
+        //when - action ir the behaviour we are going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/changes"));
+
+        //then  - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "5"));
+    }
 }
@@ -0,0 +1,66 @@
+package com.orldev.springboot.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadYourWritesFilterTests {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+    private final ReadYourWritesFilter filter =
+            new ReadYourWritesFilter(Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    // JUnit test for pinning writes to the primary and setting the cookie
+    @DisplayName("JUnit test for pinning writes to the primary and setting the cookie")
+    @Test
+    public void givenPostRequest_whenFilter_thenPinnedAndCookieSet() throws Exception {
+        //given - precondition or setup
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/employees");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when - action ir the behaviour we are going to test
+        AtomicBoolean pinned = new AtomicBoolean();
+        filter.doFilter(request, response, (req, res) -> pinned.set(ReplicaRoutingDataSource.isPinnedToPrimary()));
+
+        //then  - verify the output
+        assertThat(pinned).isTrue();
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+        assertThat(response.getCookie(ReadYourWritesFilter.COOKIE_NAME).getValue())
+                .isEqualTo(Long.toString(NOW.plusSeconds(5).toEpochMilli()));
+    }
+
+    // JUnit test for reads inside and after the read-your-writes window
+    @DisplayName("JUnit test for reads inside and after the read-your-writes window")
+    @Test
+    public void givenWriteCookie_whenGetRequest_thenPinnedOnlyInsideWindow() throws Exception {
+        //given - precondition or setup
+        MockHttpServletRequest recent = new MockHttpServletRequest("GET", "/api/employees/1");
+        recent.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(NOW.plusSeconds(2).toEpochMilli())));
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/api/employees/1");
+        expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(NOW.minusSeconds(1).toEpochMilli())));
+
+        //when - action ir the behaviour we are going to test
+        AtomicBoolean recentPinned = new AtomicBoolean();
+        AtomicBoolean expiredPinned = new AtomicBoolean();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(recent, response, (req, res) -> recentPinned.set(ReplicaRoutingDataSource.isPinnedToPrimary()));
+        filter.doFilter(expired, new MockHttpServletResponse(),
+                (req, res) -> expiredPinned.set(ReplicaRoutingDataSource.isPinnedToPrimary()));
+
+        //then  - verify the output
+        assertThat(recentPinned).isTrue();
+        assertThat(expiredPinned).isFalse();
+        assertThat(response.getCookie(ReadYourWritesFilter.COOKIE_NAME)).isNull();
+    }
+}
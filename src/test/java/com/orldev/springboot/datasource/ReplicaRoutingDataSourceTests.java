@@ -0,0 +1,157 @@
+package com.orldev.springboot.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Two embedded databases stand in for the primary and a replica, each answering with its own name
+public class ReplicaRoutingDataSourceTests {
+
+    private final List<EmbeddedDatabase> databases = new ArrayList<>();
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @AfterEach
+    public void tearDown(){
+        ReplicaRoutingDataSource.unpin();
+        databases.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    // JUnit test for routing read-only transactions to the replica
+    @DisplayName("JUnit test for routing read-only transactions to the replica")
+    @Test
+    public void givenPrimaryAndReplica_whenReadOnlyTransaction_thenReadFromReplica(){
+        //given - precondition or setup
+        setup(Map.of("replica-1", database("replica-1")));
+
+        //when - action ir the behaviour we are going to test
+        //then  - verify the output
+        assertThat(serverName(readOnly)).isEqualTo("replica-1");
+        assertThat(serverName(readWrite)).isEqualTo("primary");
+        assertThat(serverName()).isEqualTo("primary");
+    }
+
+    // JUnit test for spreading reads over the replicas
+    @DisplayName("JUnit test for spreading reads over the replicas")
+    @Test
+    public void givenTwoReplicas_whenReadOnlyTransactions_thenAlternateReplicas(){
+        //given - precondition or setup
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", database("replica-1"));
+        replicas.put("replica-2", database("replica-2"));
+        setup(replicas);
+
+        //when - action ir the behaviour we are going to test
+        List<String> servers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            servers.add(serverName(readOnly));
+        }
+
+        //then  - verify the output
+        assertThat(servers).containsExactly("replica-1", "replica-2", "replica-1", "replica-2");
+    }
+
+    // JUnit test for reading from the primary while pinned after a write
+    @DisplayName("JUnit test for reading from the primary while pinned after a write")
+    @Test
+    public void givenPinnedToPrimary_whenReadOnlyTransaction_thenReadFromPrimary(){
+        //given - precondition or setup
+        setup(Map.of("replica-1", database("replica-1")));
+
+        //when - action ir the behaviour we are going to test
+        ReplicaRoutingDataSource.pinToPrimary();
+
+        //then  - verify the output
+        assertThat(serverName(readOnly)).isEqualTo("primary");
+    }
+
+    // JUnit test for skipping a replica that fails its health check
+    @DisplayName("JUnit test for skipping a replica that fails its health check")
+    @Test
+    public void givenDownReplica_whenReadOnlyTransaction_thenReadFromHealthyOneOrPrimary(){
+        //given - precondition or setup
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE", "sa", ""));
+        AtomicBoolean replica2Down = new AtomicBoolean();
+        replicas.put("replica-2", new DelegatingDataSource(database("replica-2")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if(replica2Down.get()){
+                    throw new SQLException("Connection refused");
+                }
+                return super.getConnection();
+            }
+        });
+        ReplicaSet replicaSet = setup(replicas);
+
+        //when - action ir the behaviour we are going to test
+        List<String> servers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            servers.add(serverName(readOnly));
+        }
+
+        //then  - verify the output
+        assertThat(servers).containsOnly("replica-2");
+        assertThat(replicaSet.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(replicaSet.health().getDetails()).containsEntry("replica-1", "DOWN").containsEntry("healthy", "1/2");
+
+        replica2Down.set(true);
+        replicaSet.checkNow();
+        assertThat(serverName(readOnly)).isEqualTo("primary");
+    }
+
+    private ReplicaSet setup(Map<String, DataSource> replicas){
+        ReplicaSet replicaSet = new ReplicaSet(database("primary"), replicas, Duration.ofSeconds(1), new SimpleMeterRegistry());
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaSet));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return replicaSet;
+    }
+
+    private EmbeddedDatabase database(String name){
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name + "-" + System.nanoTime())
+                .build();
+        new JdbcTemplate(database).execute("CREATE TABLE server (name VARCHAR(20))");
+        new JdbcTemplate(database).update("INSERT INTO server (name) VALUES (?)", name);
+        databases.add(database);
+        return database;
+    }
+
+    private String serverName(){
+        return jdbcTemplate.queryForObject("SELECT name FROM server", String.class);
+    }
+
+    private String serverName(TransactionTemplate transactionTemplate){
+        return transactionTemplate.execute(status -> serverName());
+    }
+}
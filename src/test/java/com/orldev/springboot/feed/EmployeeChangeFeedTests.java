@@ -0,0 +1,168 @@
+package com.orldev.springboot.feed;
+
+import com.orldev.springboot.event.EmployeeEvent;
+import com.orldev.springboot.model.Employee;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Subscribers are RecordingEmitters: events are captured as the text an SSE response would carry
+public class EmployeeChangeFeedTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EmployeeChangeFeed feed;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        feed = new EmployeeChangeFeed(true, 3, 2, 10, Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofSeconds(5),
+                Jackson2ObjectMapperBuilder.json().build(), meterRegistry);
+        feed.start();
+        employee = Employee.builder()
+                .id(7L)
+                .firstName("orlando")
+                .lastName("cruz")
+                .email("orlandocruz999@gmail.com")
+                .version(1L)
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        feed.stop();
+    }
+
+    // JUnit test for pushing committed changes
+    @DisplayName("JUnit test for subscribers receiving committed changes as named events with ids")
+    @Test
+    public void givenSubscriber_whenEmployeeEvents_thenCreatedAndDeletedEventsSent() throws Exception {
+        //given - precondition or setup
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        feed.subscribe(emitter, null).orElseThrow();
+
+        //when - action ir the behaviour we are going to test
+        feed.onEmployeeEvent(EmployeeEvent.created(employee));
+        feed.onEmployeeEvent(EmployeeEvent.deleted(7L));
+
+        //then  - verify the output
+        String created = emitter.next();
+        assertThat(created).startsWith("id:" + feed.eventId(1) + "\nevent:created\ndata:");
+        assertThat(created).contains("\"type\":\"CREATED\"", "\"id\":7", "\"email\":\"orlandocruz999@gmail.com\"");
+        String deleted = emitter.next();
+        assertThat(deleted).startsWith("id:" + feed.eventId(2) + "\nevent:deleted\ndata:");
+        assertThat(deleted).contains("\"type\":\"DELETED\"", "\"employee\":null");
+    }
+
+    // JUnit test for resuming from Last-Event-ID
+    @DisplayName("JUnit test for Last-Event-ID replaying later changes, or a reset once out of the replay ring")
+    @Test
+    public void givenLastEventId_whenSubscribe_thenReplayedFromRingOrReset() throws Exception {
+        //given - precondition or setup
+        for (int i = 0; i < 5; i++) {
+            feed.onEmployeeEvent(EmployeeEvent.updated(employee));
+        }
+        RecordingEmitter resumed = new RecordingEmitter(new CountDownLatch(0));
+        RecordingEmitter evicted = new RecordingEmitter(new CountDownLatch(0));
+        RecordingEmitter otherProcess = new RecordingEmitter(new CountDownLatch(0));
+
+        //when - action ir the behaviour we are going to test
+        feed.subscribe(resumed, feed.eventId(3)).orElseThrow();
+        feed.subscribe(evicted, feed.eventId(1)).orElseThrow();
+        feed.subscribe(otherProcess, "1-4").orElseThrow();
+        feed.onEmployeeEvent(EmployeeEvent.deleted(7L));
+
+        //then  - verify the output
+        assertThat(resumed.next()).startsWith("id:" + feed.eventId(4) + "\nevent:updated");
+        assertThat(resumed.next()).startsWith("id:" + feed.eventId(5) + "\nevent:updated");
+        assertThat(resumed.next()).startsWith("id:" + feed.eventId(6) + "\nevent:deleted");
+        for (RecordingEmitter emitter : new RecordingEmitter[]{evicted, otherProcess}) {
+            assertThat(emitter.next()).startsWith("id:" + feed.eventId(5) + "\nevent:reset");
+            assertThat(emitter.next()).startsWith("id:" + feed.eventId(6) + "\nevent:deleted");
+        }
+        assertThat(meterRegistry.get("employees.change.feed.resets").counter().count()).isEqualTo(2);
+    }
+
+    // JUnit test for the slow consumer policy
+    @DisplayName("JUnit test for a subscriber with a full buffer being disconnected without holding back the others")
+    @Test
+    public void givenStalledSubscriber_whenBufferFills_thenDisconnected() throws Exception {
+        //given - precondition or setup
+        CountDownLatch stalled = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stalled);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        feed.subscribe(slow, null).orElseThrow();
+        feed.subscribe(fast, null).orElseThrow();
+
+        //when - action ir the behaviour we are going to test
+        //One event blocked in send plus buffer-size (2) queued, the next one overflows
+        for (int i = 0; i < 5; i++) {
+            feed.onEmployeeEvent(EmployeeEvent.updated(employee));
+            fast.next();
+            if(i == 0){
+                slow.awaitSending();
+            }
+        }
+        stalled.countDown();
+
+        //then  - verify the output
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(fast.completed.getCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("employees.change.feed.disconnects").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("employees.change.feed.subscribers").gauge().value()).isEqualTo(1);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch gate;
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(data -> text.append(data.getData()));
+            events.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertThat(event).isNotNull();
+            return event;
+        }
+
+        void awaitSending() throws InterruptedException {
+            assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
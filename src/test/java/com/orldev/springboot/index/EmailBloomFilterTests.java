@@ -0,0 +1,82 @@
+package com.orldev.springboot.index;
+
+import com.orldev.springboot.repository.EmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailBloomFilterTests {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmailBloomFilter emailBloomFilter;
+
+    @BeforeEach
+    public void setup(){
+        meterRegistry = new SimpleMeterRegistry();
+        emailBloomFilter = new EmailBloomFilter(true, 1000, 0.01, employeeRepository, meterRegistry);
+    }
+
+    // JUnit test for rebuilding the filter from the stored emails
+    @DisplayName("JUnit test for rebuilding the filter from the stored emails")
+    @Test
+    public void givenStoredEmails_whenRebuild_thenMightContainEveryEmail(){
+        //given - precondition or setup
+        BDDMockito.given(employeeRepository.streamAllEmails())
+                .willReturn(Stream.of("orlandocruz999@gmail.com", "mariasilva12@gmail.com"));
+
+        //when - action ir the behaviour we are going to test
+        emailBloomFilter.rebuild();
+
+        //then  - verify the output
+        assertThat(emailBloomFilter.mightContain("orlandocruz999@gmail.com")).isTrue();
+        assertThat(emailBloomFilter.mightContain("MariaSilva12@gmail.com")).isTrue();
+        assertThat(emailBloomFilter.mightContain("someone.else@gmail.com")).isFalse();
+    }
+
+    // JUnit test for the false positive rate metric
+    @DisplayName("JUnit test for the false positive rate metric")
+    @Test
+    public void givenPositiveCheckNotFound_whenRecordLookup_thenReportFalsePositiveRate(){
+        //given - precondition or setup
+        emailBloomFilter.put("orlandocruz999@gmail.com");
+        emailBloomFilter.mightContain("orlandocruz999@gmail.com");
+        emailBloomFilter.mightContain("orlandocruz999@gmail.com");
+
+        //when - action ir the behaviour we are going to test
+        emailBloomFilter.recordLookup(true);
+        emailBloomFilter.recordLookup(false);
+
+        //then  - verify the output
+        assertThat(meterRegistry.get("employees.email.filter.false.positive.rate").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("employees.email.filter.checks").tag("result", "positive").counter().count()).isEqualTo(2);
+    }
+
+    // JUnit test for a disabled filter
+    @DisplayName("JUnit test for a disabled filter")
+    @Test
+    public void givenDisabledFilter_whenMightContain_thenAlwaysReturnFalse(){
+        //given - precondition or setup
+        EmailBloomFilter disabled = new EmailBloomFilter(false, 1000, 0.01, employeeRepository, new SimpleMeterRegistry());
+        disabled.put("orlandocruz999@gmail.com");
+
+        //when - action ir the behaviour we are going to test
+        boolean result = disabled.mightContain("orlandocruz999@gmail.com");
+
+        //then  - verify the output
+        assertThat(result).isFalse();
+    }
+}
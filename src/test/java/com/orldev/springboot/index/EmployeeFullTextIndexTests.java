@@ -0,0 +1,98 @@
+package com.orldev.springboot.index;
+
+import com.orldev.springboot.dto.EmployeeSearchHit;
+import com.orldev.springboot.event.EmployeeEvent;
+import com.orldev.springboot.model.Employee;
+import com.orldev.springboot.repository.EmployeeRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.search.mapper.orm.Search;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest //in memory test, the indexing plan is executed by hand since the transaction never commits
+@Import(EmployeeFullTextIndex.class)
+public class EmployeeFullTextIndexTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EmployeeFullTextIndex employeeFullTextIndex;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        //the heap index outlives the rolled back transactions of previous tests
+        Search.session(entityManager).workspace(Employee.class).purge();
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("Orlando")
+                .lastName("Cruz")
+                .email("orlandocruz999@gmail.com")
+                .build());
+        employeeRepository.save(Employee.builder()
+                .firstName("Maria")
+                .lastName("Silva")
+                .email("mariasilva21@gmail.com")
+                .build());
+        flushIndex();
+    }
+
+    // JUnit test for fuzzy full-text search on names and email
+    @DisplayName("JUnit test for fuzzy full-text search on names and email")
+    @Test
+    public void givenIndexedEmployees_whenSearchWithTypos_thenReturnClosestMatches(){
+        //given - precondition or setup
+
+        //when - action ir the behaviour we are going to test
+        List<EmployeeSearchHit> byName = employeeFullTextIndex.search("orlnado", 10);
+        List<EmployeeSearchHit> byEmail = employeeFullTextIndex.search("mariasilva21", 10);
+
+        //then  - verify the output
+        assertThat(byName).extracting(EmployeeSearchHit::id).containsExactly(employee.getId());
+        assertThat(byName.get(0).email()).isEqualTo("orlandocruz999@gmail.com");
+        assertThat(byEmail).extracting(EmployeeSearchHit::lastName).containsExactly("Silva");
+        assertThat(employeeFullTextIndex.search("zzzzzzzz", 10)).isEmpty();
+    }
+
+    // JUnit test for indexing bulk updates and deletes from employee events
+    @DisplayName("JUnit test for indexing bulk updates and deletes from employee events")
+    @Test
+    public void givenUpdateAndDeleteEvents_whenSearch_thenReflectLatestState(){
+        //given - precondition or setup
+        Employee updated = Employee.builder()
+                .id(employee.getId())
+                .firstName("Orlando")
+                .lastName("Sousa")
+                .email("orlandosousa@gmail.com")
+                .build();
+        Long mariaId = employeeFullTextIndex.search("silva", 10).get(0).id();
+
+        //when - action ir the behaviour we are going to test
+        employeeFullTextIndex.onEmployeeEvent(EmployeeEvent.updated(updated));
+        employeeFullTextIndex.onEmployeeEvent(EmployeeEvent.deleted(mariaId));
+        flushIndex();
+
+        //then  - verify the output
+        assertThat(employeeFullTextIndex.search("sousa", 10)).extracting(EmployeeSearchHit::id)
+                .containsExactly(employee.getId());
+        assertThat(employeeFullTextIndex.search("cruz", 10)).isEmpty();
+        assertThat(employeeFullTextIndex.search("silva", 10)).isEmpty();
+    }
+
+    private void flushIndex(){
+        entityManager.flush();
+        Search.session(entityManager).indexingPlan().execute();
+    }
+}
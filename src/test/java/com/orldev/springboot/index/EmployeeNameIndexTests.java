@@ -0,0 +1,71 @@
+package com.orldev.springboot.index;
+
+import com.orldev.springboot.dto.EmployeeSuggestion;
+import com.orldev.springboot.event.EmployeeEvent;
+import com.orldev.springboot.model.Employee;
+import com.orldev.springboot.repository.EmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeNameIndexTests {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeNameIndex employeeNameIndex;
+
+    @BeforeEach
+    public void setup(){
+        employeeNameIndex = new EmployeeNameIndex(true, employeeRepository, new SimpleMeterRegistry());
+    }
+
+    // JUnit test for suggestions on first and last name prefixes
+    @DisplayName("JUnit test for suggestions on first and last name prefixes")
+    @Test
+    public void givenRebuiltIndex_whenSuggest_thenMatchFirstOrLastNameIgnoringCase(){
+        //given - precondition or setup
+        BDDMockito.given(employeeRepository.streamAllNames()).willReturn(Stream.of(
+                new EmployeeSuggestion(1L, "Orlando", "Cruz"),
+                new EmployeeSuggestion(2L, "Maria", "Orlov"),
+                new EmployeeSuggestion(3L, "Ana", "Silva")));
+        employeeNameIndex.rebuild();
+
+        //when - action ir the behaviour we are going to test
+        //then  - verify the output
+        assertThat(employeeNameIndex.suggest("orl", 10)).extracting(EmployeeSuggestion::id).containsExactly(1L, 2L);
+        assertThat(employeeNameIndex.suggest("orl", 1)).extracting(EmployeeSuggestion::id).containsExactly(1L);
+        assertThat(employeeNameIndex.suggest("SIL", 10)).extracting(EmployeeSuggestion::id).containsExactly(3L);
+        assertThat(employeeNameIndex.suggest("x", 10)).isEmpty();
+    }
+
+    // JUnit test for keeping the index in sync with employee events
+    @DisplayName("JUnit test for keeping the index in sync with employee events")
+    @Test
+    public void givenUpdateAndDeleteEvents_whenSuggest_thenReflectLatestNames(){
+        //given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("Orlando").lastName("Cruz").build();
+        employeeNameIndex.onEmployeeEvent(EmployeeEvent.created(employee));
+        employeeNameIndex.onEmployeeEvent(EmployeeEvent.created(Employee.builder().id(2L).firstName("Maria").lastName("Silva").build()));
+
+        //when - action ir the behaviour we are going to test
+        employee.setLastName("Sousa");
+        employeeNameIndex.onEmployeeEvent(EmployeeEvent.updated(employee));
+        employeeNameIndex.onEmployeeEvent(EmployeeEvent.deleted(2L));
+
+        //then  - verify the output
+        assertThat(employeeNameIndex.suggest("cr", 10)).isEmpty();
+        assertThat(employeeNameIndex.suggest("so", 10)).extracting(EmployeeSuggestion::lastName).containsExactly("Sousa");
+        assertThat(employeeNameIndex.suggest("ma", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,161 @@
+package com.orldev.springboot.ingest;
+
+import com.orldev.springboot.dto.IngestStatus;
+import com.orldev.springboot.exception.PartialSaveException;
+import com.orldev.springboot.exception.ResourceNotFoundException;
+import com.orldev.springboot.model.Employee;
+import com.orldev.springboot.service.EmployeeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+
+//The writer thread is not started, drainQueued() runs a drain on the test thread
+@ExtendWith(MockitoExtension.class)
+public class EmployeeIngestQueueTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeIngestQueue employeeIngestQueue;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        employeeIngestQueue = new EmployeeIngestQueue(true, 2, 10, Duration.ofSeconds(1), Duration.ofHours(1),
+                Duration.ofSeconds(1), employeeService, new SimpleMeterRegistry());
+        employee = Employee.builder()
+                .firstName("Orlando")
+                .lastName("Cruz")
+                .email("orlandocruz999@gmail.com")
+                .build();
+    }
+
+    // JUnit test for writing queued employees in one batch
+    @DisplayName("JUnit test for writing queued employees in one batch")
+    @Test
+    public void givenQueuedEmployees_whenDrain_thenSavedInOneBatch(){
+        //given - precondition or setup
+        Employee other = Employee.builder().firstName("Maria").lastName("Silva").email("mariasilva21@gmail.com").build();
+        BDDMockito.given(employeeService.saveEmployees(ArgumentMatchers.anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            for (int i = 0; i < employees.size(); i++) {
+                employees.get(i).setId(10L + i);
+            }
+            return employees;
+        });
+        IngestStatus first = employeeIngestQueue.submit(employee).orElseThrow();
+        IngestStatus second = employeeIngestQueue.submit(other).orElseThrow();
+
+        //when - action ir the behaviour we are going to test
+        int drained = employeeIngestQueue.drainQueued();
+
+        //then  - verify the output
+        assertThat(first.state()).isEqualTo(IngestStatus.State.QUEUED);
+        assertThat(drained).isEqualTo(2);
+        BDDMockito.verify(employeeService).saveEmployees(ArgumentMatchers.anyList());
+        assertThat(employeeIngestQueue.getStatus(first.trackingId()))
+                .hasValueSatisfying(status -> {
+                    assertThat(status.state()).isEqualTo(IngestStatus.State.SAVED);
+                    assertThat(status.employeeId()).isEqualTo(10L);
+                    assertThat(status.completedAt()).isNotNull();
+                });
+        assertThat(employeeIngestQueue.getStatus(second.trackingId()).map(IngestStatus::employeeId)).contains(11L);
+    }
+
+    // JUnit test for refusing employees once the queue is full
+    @DisplayName("JUnit test for refusing employees once the queue is full")
+    @Test
+    public void givenFullQueue_whenSubmit_thenReturnEmpty(){
+        //given - precondition or setup
+        employeeIngestQueue.submit(employee);
+        employeeIngestQueue.submit(employee);
+
+        //when - action ir the behaviour we are going to test
+        Optional<IngestStatus> status = employeeIngestQueue.submit(employee);
+
+        //then  - verify the output
+        assertThat(status).isEmpty();
+    }
+
+    // JUnit test for isolating a duplicate email of a failed batch
+    @DisplayName("JUnit test for isolating a duplicate email of a failed batch")
+    @Test
+    public void givenDuplicateInBatch_whenDrain_thenOnlyDuplicateRejected(){
+        //given - precondition or setup
+        Employee duplicate = Employee.builder().firstName("Maria").lastName("Silva").email("taken@gmail.com").build();
+        BDDMockito.given(employeeService.saveEmployees(ArgumentMatchers.anyList()))
+                .willThrow(new ResourceNotFoundException("Employee already exist with the given email:taken@gmail.com"));
+        BDDMockito.given(employeeService.saveEmployee(any(Employee.class))).willAnswer(invocation -> {
+            Employee saved = invocation.getArgument(0);
+            if(saved.getEmail().equals("taken@gmail.com")){
+                throw new ResourceNotFoundException("Employee already exist with the given email:taken@gmail.com");
+            }
+            saved.setId(1L);
+            return saved;
+        });
+        IngestStatus first = employeeIngestQueue.submit(employee).orElseThrow();
+        IngestStatus second = employeeIngestQueue.submit(duplicate).orElseThrow();
+
+        //when - action ir the behaviour we are going to test
+        employeeIngestQueue.drainQueued();
+
+        //then  - verify the output
+        assertThat(employeeIngestQueue.getStatus(first.trackingId()).map(IngestStatus::state))
+                .contains(IngestStatus.State.SAVED);
+        assertThat(employeeIngestQueue.getStatus(second.trackingId()))
+                .hasValueSatisfying(status -> {
+                    assertThat(status.state()).isEqualTo(IngestStatus.State.REJECTED);
+                    assertThat(status.error()).contains("taken@gmail.com");
+                });
+    }
+
+    // JUnit test for replaying a batch that was partly committed
+    @DisplayName("JUnit test for a partly committed batch replaying only the rows that were not saved")
+    @Test
+    public void givenPartlyCommittedBatch_whenDrain_thenCommittedRowsSavedOthersReplayed(){
+        //given - precondition or setup
+        //Same names as the first employee, but the email is held by a row this task did not write
+        Employee duplicate = Employee.builder().firstName("Orlando").lastName("Cruz").email("taken@gmail.com").build();
+        Employee committed = Employee.builder().id(5L).firstName("Orlando").lastName("Cruz").email(employee.getEmail()).build();
+        List<Employee> savedEmployees = new ArrayList<>();
+        savedEmployees.add(committed);
+        savedEmployees.add(null);
+        BDDMockito.given(employeeService.saveEmployees(ArgumentMatchers.anyList()))
+                .willThrow(new PartialSaveException("Employee batch was saved on some shards only", savedEmployees,
+                        new ResourceNotFoundException("Employee already exist with the given email:taken@gmail.com")));
+        BDDMockito.given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new ResourceNotFoundException("Employee already exist with the given email:taken@gmail.com"));
+        IngestStatus first = employeeIngestQueue.submit(employee).orElseThrow();
+        IngestStatus second = employeeIngestQueue.submit(duplicate).orElseThrow();
+
+        //when - action ir the behaviour we are going to test
+        employeeIngestQueue.drainQueued();
+
+        //then  - verify the output
+        assertThat(employeeIngestQueue.getStatus(first.trackingId()))
+                .hasValueSatisfying(status -> {
+                    assertThat(status.state()).isEqualTo(IngestStatus.State.SAVED);
+                    assertThat(status.employeeId()).isEqualTo(5L);
+                });
+        assertThat(employeeIngestQueue.getStatus(second.trackingId()).map(IngestStatus::state))
+                .contains(IngestStatus.State.REJECTED);
+        BDDMockito.verify(employeeService).saveEmployee(ArgumentMatchers.argThat(
+                employee -> employee.getEmail().equals("taken@gmail.com")));
+        BDDMockito.verifyNoMoreInteractions(employeeService);
+    }
+}
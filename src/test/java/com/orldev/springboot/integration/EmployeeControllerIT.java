@@ -3,6 +3,7 @@ package com.orldev.springboot.integration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.orldev.springboot.model.Employee;
 import com.orldev.springboot.repository.EmployeeRepository;
+import com.orldev.springboot.sql.SqlStatementFilter;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.web.servlet.MockMvc;
@@ -21,7 +23,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+import static com.orldev.springboot.sql.SqlStatementMatchers.sqlStatements;
+
+//The SQL statement debug headers are off by default, these tests read them
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "employees.sql-stats.response-headers=true")
 @AutoConfigureMockMvc
 @Transactional
 public class EmployeeControllerIT {
@@ -61,6 +67,8 @@ public class EmployeeControllerIT {
         //then  - verify the output
         response.andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.status().isCreated())
+                //the insert, plus a sequence fetch once every 50 ids
+                .andExpect(sqlStatements().atMost(2))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.firstName", CoreMatchers.is(employee.getFirstName())))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.lastName", CoreMatchers.is(employee.getLastName())))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(employee.getEmail())));
@@ -80,7 +88,7 @@ public class EmployeeControllerIT {
 
         List<Employee> employeeList = List.of(employee, employee1);
 
-        employeeRepository.saveAll(employeeList);
+        employeeRepository.saveAllAndFlush(employeeList);
 
         //when - action ir the behaviour we are going to test
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees"));
@@ -88,6 +96,8 @@ public class EmployeeControllerIT {
         //then  - verify the output
         response.andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(sqlStatements().atMost(2))
+                .andExpect(sqlStatements().noSelectRepeatedMoreThan(1))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(employeeList.size())));
     }
 
@@ -99,7 +109,7 @@ public class EmployeeControllerIT {
     @Rollback(value = true)
     public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject() throws Exception {
         //given - precondition or setup
-        Employee savedEmployee = employeeRepository.save(employee);
+        Employee savedEmployee = employeeRepository.saveAndFlush(employee);
 
         //when - action ir the behaviour we are going to test
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", savedEmployee.getId()));
@@ -107,6 +117,8 @@ public class EmployeeControllerIT {
         //then  - verify the output
         response.andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(sqlStatements().atMost(1))
+                .andExpect(MockMvcResultMatchers.header().exists(SqlStatementFilter.STATEMENT_COUNT_HEADER))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.firstName", CoreMatchers.is(employee.getFirstName())))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.lastName", CoreMatchers.is(employee.getLastName())))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(employee.getEmail())));
@@ -126,7 +138,9 @@ public class EmployeeControllerIT {
 
         //then  - verify the output
         response.andDo(MockMvcResultHandlers.print())
-                .andExpect(MockMvcResultMatchers.status().isNotFound());
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(MockMvcResultMatchers.header().string(SqlStatementFilter.STATEMENT_COUNT_HEADER, "1"))
+                .andExpect(sqlStatements().atMost(1));
     }
 
     //Positive scenario
@@ -137,7 +151,7 @@ public class EmployeeControllerIT {
     public void givenEmployeeIdAndEmployee_whenUpdateEmployee_thenReturnUpdatedEmployeeObject() throws Exception {
         //given - precondition or setup
 
-        Employee savedEmployee = employeeRepository.save(employee);
+        Employee savedEmployee = employeeRepository.saveAndFlush(employee);
 
         Employee updatedEmployee = Employee.builder()
                 .firstName("Maria")
@@ -154,6 +168,9 @@ public class EmployeeControllerIT {
         //then  - verify the output
         response.andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(sqlStatements().atMost(1))
+                //Unconditional, so the new version is not known without another query
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.ETAG))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.firstName", CoreMatchers.is(updatedEmployee.getFirstName())))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.lastName", CoreMatchers.is(updatedEmployee.getLastName())))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(updatedEmployee.getEmail())));
@@ -169,7 +186,7 @@ public class EmployeeControllerIT {
         //given - precondition or setup
         Long id = 3L;
 
-        Employee savedEmployee = employeeRepository.save(employee);
+        Employee savedEmployee = employeeRepository.saveAndFlush(employee);
 
         Employee updatedEmployee = Employee.builder()
                 .firstName("Maria")
@@ -185,17 +202,18 @@ public class EmployeeControllerIT {
 
         //then  - verify the output
         response.andDo(MockMvcResultHandlers.print())
-                .andExpect(MockMvcResultMatchers.status().isNotFound());
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(sqlStatements().atMost(1));
     }
 
     // JUnit test for delete Employee delete request
     @DisplayName("JUnit test for delete Employee delete request")
     @Test
     @Rollback(value = true)
-    public void givenEmployeeId_whenDeleteEmployee_thenReturnString() throws Exception {
+    public void givenEmployeeId_whenDeleteEmployee_thenReturnNoContent() throws Exception {
         //given - precondition or setup
 
-        Employee savedEmployee = employeeRepository.save(employee);
+        Employee savedEmployee = employeeRepository.saveAndFlush(employee);
 
         //when - action ir the behaviour we are going to test
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees/{id}", savedEmployee.getId()));
@@ -203,7 +221,8 @@ public class EmployeeControllerIT {
 
         //then  - verify the output
         response.andDo(MockMvcResultHandlers.print())
-                .andExpect(MockMvcResultMatchers.status().isOk());
+                .andExpect(MockMvcResultMatchers.status().isNoContent())
+                .andExpect(sqlStatements().atMost(1));
     }
 
 }
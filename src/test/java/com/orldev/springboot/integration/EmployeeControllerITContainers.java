@@ -204,7 +204,7 @@ public class EmployeeControllerITContainers extends AbstractionContainerBaseTest
     @DisplayName("JUnit test for delete Employee delete request")
     @Test
     @Rollback(value = true)
-    public void givenEmployeeId_whenDeleteEmployee_thenReturnString() throws Exception {
+    public void givenEmployeeId_whenDeleteEmployee_thenReturnNoContent() throws Exception {
         //given - precondition or setup
 
         Employee savedEmployee = employeeRepository.save(employee);
@@ -215,7 +215,7 @@ public class EmployeeControllerITContainers extends AbstractionContainerBaseTest
 
         //then  - verify the output
         response.andDo(MockMvcResultHandlers.print())
-                .andExpect(MockMvcResultMatchers.status().isOk());
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
     }
 
 }
@@ -0,0 +1,80 @@
+package com.orldev.springboot.limit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTests {
+
+    // JUnit test for refusing requests over the limit
+    @DisplayName("JUnit test for refusing requests over the limit")
+    @Test
+    public void givenLimitInFlight_whenTryAcquire_thenRefused(){
+        //given - precondition or setup
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 0.2, 1.5, 100);
+        limit.tryAcquire();
+        limit.tryAcquire();
+
+        //when - action ir the behaviour we are going to test
+        boolean refused = !limit.tryAcquire();
+        limit.releaseWithoutSample();
+
+        //then  - verify the output
+        assertThat(refused).isTrue();
+        assertThat(limit.getInFlight()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    // JUnit test for growing while latency is stable
+    @DisplayName("JUnit test for growing the limit while latency is stable")
+    @Test
+    public void givenStableLatencyAtFullLoad_whenRelease_thenLimitGrows(){
+        //given - precondition or setup
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 0.2, 1.5, 100);
+
+        //when - action ir the behaviour we are going to test
+        runRounds(limit, 20, 10);
+
+        //then  - verify the output
+        assertThat(limit.getLimit()).isGreaterThan(10);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    // JUnit test for shrinking once latency rises
+    @DisplayName("JUnit test for shrinking the limit when latency rises and on failures")
+    @Test
+    public void givenRisingLatency_whenRelease_thenLimitShrinks(){
+        //given - precondition or setup
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 0.2, 1.5, 100);
+        runRounds(limit, 10, 10);
+        int warmLimit = limit.getLimit();
+
+        //when - action ir the behaviour we are going to test
+        runRounds(limit, 5, 100);
+        int slowLimit = limit.getLimit();
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire();
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+        }
+
+        //then  - verify the output
+        assertThat(slowLimit).isLessThan(warmLimit);
+        assertThat(limit.getLimit()).isLessThan(slowLimit).isGreaterThanOrEqualTo(2);
+    }
+
+    //Fills the limit, then completes every request with the same latency
+    private static void runRounds(AdaptiveConcurrencyLimit limit, int rounds, long latencyMillis){
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(TimeUnit.MILLISECONDS.toNanos(latencyMillis), false);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.orldev.springboot.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimitFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AdaptiveConcurrencyLimit readLimit = new AdaptiveConcurrencyLimit(1, 1, 1, 0.2, 1.5, 100);
+
+    private final AdaptiveConcurrencyLimit writeLimit = new AdaptiveConcurrencyLimit(1, 1, 1, 0.2, 1.5, 100);
+
+    private final ConcurrencyLimitFilter filter =
+            new ConcurrencyLimitFilter(readLimit, writeLimit, 503, Duration.ofSeconds(2), meterRegistry);
+
+    // JUnit test for shedding reads over the limit
+    @DisplayName("JUnit test for shedding reads over the limit with 503 and Retry-After")
+    @Test
+    public void givenReadLimitReached_whenGetRequest_thenShedWithoutCallingChain() throws Exception {
+        //given - precondition or setup
+        readLimit.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicInteger calls = new AtomicInteger();
+
+        //when - action ir the behaviour we are going to test
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/employees/1"), response, (req, res) -> calls.incrementAndGet());
+
+        //then  - verify the output
+        assertThat(calls).hasValue(0);
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(meterRegistry.get("employees.concurrency.rejected").tag("kind", "read").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("employees.concurrency.in.flight").tag("kind", "read").gauge().value()).isEqualTo(1);
+    }
+
+    // JUnit test for separate read and write limits
+    @DisplayName("JUnit test for writes and other paths passing while reads are at their limit")
+    @Test
+    public void givenReadLimitReached_whenPostOrOtherPath_thenPassedAndReleased() throws Exception {
+        //given - precondition or setup
+        readLimit.tryAcquire();
+        AtomicInteger calls = new AtomicInteger();
+
+        //when - action ir the behaviour we are going to test
+        MockHttpServletResponse write = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/employees"), write, (req, res) -> calls.incrementAndGet());
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                (req, res) -> calls.incrementAndGet());
+
+        //then  - verify the output
+        assertThat(calls).hasValue(2);
+        assertThat(write.getStatus()).isEqualTo(200);
+        assertThat(writeLimit.getInFlight()).isZero();
+        assertThat(readLimit.getInFlight()).isEqualTo(1);
+    }
+}
@@ -1,14 +1,21 @@
 package com.orldev.springboot.repository;
 
+import com.orldev.springboot.dto.EmployeeView;
 import com.orldev.springboot.model.Employee;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -17,6 +24,9 @@ public class EmployeeRepositoryTests {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private Employee employee;
 
     @BeforeEach
@@ -183,4 +193,223 @@ public class EmployeeRepositoryTests {
         assertThat(savedEmployee).isNotNull();
     }
 
+    // JUnit test for keyset pagination ordered by last name
+    @DisplayName("JUnit test for keyset pagination ordered by last name")
+    @Test
+    public void givenEmployeesList_whenFindPageOrderByLastName_thenReturnNextRowsAfterCursor(){
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Maria")
+                .lastName("Silva")
+                .email("mariasilva21@gmail.com")
+                .build();
+        Employee employee2 = Employee.builder()
+                .firstName("Ana")
+                .lastName("Alves")
+                .email("anaalves@gmail.com")
+                .build();
+
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+        employeeRepository.save(employee2);
+
+        //when - action ir the behaviour we are going to test
+        List<EmployeeView> firstPage = employeeRepository.findPageOrderByLastName("", 0L, PageRequest.of(0, 2));
+        EmployeeView last = firstPage.get(firstPage.size() - 1);
+        List<EmployeeView> secondPage = employeeRepository.findPageOrderByLastName(last.lastName(), last.id(), PageRequest.of(0, 2));
+
+        //then  - verify the output
+        assertThat(firstPage).extracting(EmployeeView::lastName).containsExactly("Alves", "Cruz");
+        assertThat(secondPage).extracting(EmployeeView::lastName).containsExactly("Silva");
+    }
+
+    // JUnit test for prefix search ordered by last name
+    @DisplayName("JUnit test for prefix search ordered by last name")
+    @Test
+    public void givenEmployeesList_whenSearchByLastNamePrefix_thenReturnMatchingEmployees(){
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Maria")
+                .lastName("Cruzeiro")
+                .email("mariacruzeiro@gmail.com")
+                .build();
+        Employee employee2 = Employee.builder()
+                .firstName("Ana")
+                .lastName("Cruz")
+                .email("anacruz@gmail.com")
+                .build();
+        Employee employee3 = Employee.builder()
+                .firstName("Maria")
+                .lastName("Silva")
+                .email("mariasilva21@gmail.com")
+                .build();
+
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+        employeeRepository.save(employee2);
+        employeeRepository.save(employee3);
+
+        //when - action ir the behaviour we are going to test
+        List<EmployeeView> byLastName = employeeRepository.searchByLastNamePrefix("Cru%", "%", "", 0L, PageRequest.of(0, 10));
+        List<EmployeeView> byBothNames = employeeRepository.searchByLastNamePrefix("Cru%", "Ma%", "", 0L, PageRequest.of(0, 10));
+        List<EmployeeView> byFirstName = employeeRepository.searchByFirstNamePrefix("Mar%", "", 0L, PageRequest.of(0, 10));
+
+        //then  - verify the output
+        assertThat(byLastName).extracting(EmployeeView::lastName).containsExactly("Cruz", "Cruz", "Cruzeiro");
+        assertThat(byBothNames).extracting(EmployeeView::email).containsExactly("mariacruzeiro@gmail.com");
+        assertThat(byFirstName).extracting(EmployeeView::lastName).containsExactly("Cruzeiro", "Silva");
+    }
+
+    // JUnit test for read-only view lookups
+    @DisplayName("JUnit test for read-only view lookups")
+    @Test
+    public void givenEmployeeObject_whenFindViews_thenReturnDetachedRows(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        entityManager.clear();
+
+        //when - action ir the behaviour we are going to test
+        Optional<EmployeeView> view = employeeRepository.findViewById(employee.getId());
+        List<EmployeeView> views = employeeRepository.findAllViews();
+
+        //then  - verify the output
+        assertThat(view).isPresent();
+        assertThat(view.get().email()).isEqualTo(employee.getEmail());
+        assertThat(view.get().version()).isEqualTo(employee.getVersion());
+        assertThat(views).extracting(EmployeeView::id).containsExactly(employee.getId());
+        assertThat(employeeRepository.findViewById(employee.getId() + 1)).isEmpty();
+        //nothing was loaded into the persistence context
+        assertThat(entityManager.contains(employee)).isFalse();
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    // JUnit test for streaming all employees operation
+    @DisplayName("JUnit test for streaming all employees operation")
+    @Test
+    public void givenEmployeesList_whenStreamAllOrderById_thenReturnEveryEmployee(){
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Maria")
+                .lastName("Silva")
+                .email("mariasilva21@gmail.com")
+                .build();
+
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+
+        //when - action ir the behaviour we are going to test
+        List<EmployeeView> employees;
+        try (Stream<EmployeeView> stream = employeeRepository.streamAllOrderById()) {
+            employees = stream.toList();
+        }
+
+        //then  - verify the output
+        assertThat(employees).extracting(EmployeeView::email)
+                .containsExactly(employee.getEmail(), employee1.getEmail());
+    }
+
+    // JUnit test for finding existing emails operation
+    @DisplayName("JUnit test for finding existing emails operation")
+    @Test
+    public void givenEmployeeObject_whenFindExistingEmails_thenReturnOnlyStoredEmails(){
+        //given - precondition or setup
+        employeeRepository.save(employee);
+
+        //when - action ir the behaviour we are going to test
+        List<String> emails = employeeRepository.findExistingEmails(List.of(employee.getEmail(), "unknown@gmail.com"));
+
+        //then  - verify the output
+        assertThat(emails).containsExactly(employee.getEmail());
+    }
+
+    // JUnit test for get Employee version operation
+    @DisplayName("JUnit test for get Employee version operation")
+    @Test
+    public void givenEmployeeObject_whenFindVersionById_thenReturnVersion(){
+        //given - precondition or setup
+        employeeRepository.save(employee);
+
+        //when - action ir the behaviour we are going to test
+        Optional<Long> version = employeeRepository.findVersionById(employee.getId());
+
+        //then  - verify the output
+        assertThat(version).contains(0L);
+        assertThat(employeeRepository.findVersionById(employee.getId() + 1)).isEmpty();
+    }
+
+    // JUnit test for optimistic update Employee operation
+    @DisplayName("JUnit test for optimistic update Employee operation")
+    @Test
+    public void givenEmployeeVersion_whenUpdateByIdAndVersion_thenUpdateOnlyMatchingVersion(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        Instant now = Instant.now();
+
+        //when - action ir the behaviour we are going to test
+        int updated = employeeRepository.updateByIdAndVersion(employee.getId(), 0L, "Maria", "Silva", employee.getEmail(), now);
+        int stale = employeeRepository.updateByIdAndVersion(employee.getId(), 0L, "Ana", "Alves", employee.getEmail(), now);
+
+        //then  - verify the output
+        assertThat(updated).isEqualTo(1);
+        assertThat(stale).isEqualTo(0);
+        Employee updatedEmployee = employeeRepository.findById(employee.getId()).get();
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("Maria");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(1L);
+    }
+
+    // JUnit test for patch Employee operation
+    @DisplayName("JUnit test for patch Employee operation")
+    @Test
+    public void givenChangedColumns_whenPatchById_thenUpdateOnlyThoseColumns(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        //when - action ir the behaviour we are going to test
+        int updated = employeeRepository.patchById(employee.getId(), null, Map.of("lastName", "Silva"), Instant.now());
+
+        //then  - verify the output
+        assertThat(updated).isEqualTo(1);
+        Employee patchedEmployee = employeeRepository.findById(employee.getId()).get();
+        assertThat(patchedEmployee.getFirstName()).isEqualTo("Orlando");
+        assertThat(patchedEmployee.getLastName()).isEqualTo("Silva");
+    }
+
+    // JUnit test for direct delete Employee operation
+    @DisplayName("JUnit test for direct delete Employee operation")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenReturnDeletedCount(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        //when - action ir the behaviour we are going to test
+        int deleted = employeeRepository.deleteEmployeeById(employee.getId());
+        int missing = employeeRepository.deleteEmployeeById(employee.getId());
+
+        //then  - verify the output
+        assertThat(deleted).isEqualTo(1);
+        assertThat(missing).isEqualTo(0);
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
+
+    // JUnit test for bulk delete Employees operation
+    @DisplayName("JUnit test for bulk delete Employees operation")
+    @Test
+    public void givenEmployeesList_whenDeleteEmployeesByIdIn_thenRemoveAll(){
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Maria")
+                .lastName("Silva")
+                .email("mariasilva21@gmail.com")
+                .build();
+        employeeRepository.saveAndFlush(employee);
+        employeeRepository.saveAndFlush(employee1);
+
+        //when - action ir the behaviour we are going to test
+        int deleted = employeeRepository.deleteEmployeesByIdIn(List.of(employee.getId(), employee1.getId(), -1L));
+
+        //then  - verify the output
+        assertThat(deleted).isEqualTo(2);
+        assertThat(employeeRepository.count()).isEqualTo(0);
+    }
+
 }
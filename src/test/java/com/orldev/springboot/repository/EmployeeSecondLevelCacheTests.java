@@ -0,0 +1,192 @@
+package com.orldev.springboot.repository;
+
+import com.orldev.springboot.config.EmployeeCacheConfig;
+import com.orldev.springboot.model.Employee;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//The second-level cache is only written when a transaction commits, so every step commits here (no test rollback)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeSecondLevelCacheTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("Orlando")
+                .lastName("Cruz")
+                .email("orlandocruz999@gmail.com")
+                .build());
+        //Start every test from an empty region with the row loaded once
+        sessionFactory.getCache().evictAllRegions();
+        employeeRepository.findById(employee.getId());
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        employeeRepository.deleteAll();
+    }
+
+    // JUnit test for reading an employee from the second-level cache
+    @DisplayName("JUnit test for find by id served from the second-level cache")
+    @Test
+    public void givenLoadedEmployee_whenFindById_thenSecondLevelCacheHit(){
+        //given - precondition or setup
+
+        //when - action ir the behaviour we are going to test
+        Optional<Employee> first = employeeRepository.findById(employee.getId());
+        Optional<Employee> second = employeeRepository.findById(employee.getId());
+
+        //then  - verify the output
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(region().getHitCount()).isEqualTo(2);
+        assertThat(region().getMissCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    // JUnit test for entity updates and deletes keeping the cache fresh
+    @DisplayName("JUnit test for entity update and delete never serving the cached row afterwards")
+    @Test
+    public void givenCachedEmployee_whenEntityUpdateAndDelete_thenCacheFollows(){
+        //given - precondition or setup
+        employee.setFirstName("Maria");
+
+        //when - action ir the behaviour we are going to test
+        employeeRepository.save(employee);
+        Optional<Employee> updated = employeeRepository.findById(employee.getId());
+        employeeRepository.deleteById(employee.getId());
+        Optional<Employee> deleted = employeeRepository.findById(employee.getId());
+
+        //then  - verify the output
+        assertThat(updated).hasValueSatisfying(found -> assertThat(found.getFirstName()).isEqualTo("Maria"));
+        assertThat(deleted).isEmpty();
+        assertThat(region().getMissCount()).isEqualTo(1);
+    }
+
+    // JUnit test for updates by id evicting the cached row
+    @DisplayName("JUnit test for update and patch by id evicting the cached employee")
+    @Test
+    public void givenCachedEmployee_whenBulkUpdates_thenEvicted(){
+        //given - precondition or setup
+        Long id = employee.getId();
+
+        //when - action ir the behaviour we are going to test
+        transactionTemplate.executeWithoutResult(status -> employeeRepository.updateById(id, "Maria", "Silva",
+                "mariasilva21@gmail.com", Instant.now()));
+        Optional<Employee> updated = employeeRepository.findById(id);
+        long missesAfterUpdate = region().getMissCount();
+        transactionTemplate.executeWithoutResult(status -> employeeRepository.patchById(id, null,
+                Map.of("lastName", "Souza"), Instant.now()));
+        Optional<Employee> patched = employeeRepository.findById(id);
+
+        //then  - verify the output
+        assertThat(updated).hasValueSatisfying(found -> assertThat(found.getFirstName()).isEqualTo("Maria"));
+        assertThat(missesAfterUpdate).isEqualTo(1);
+        assertThat(patched).hasValueSatisfying(found -> assertThat(found.getLastName()).isEqualTo("Souza"));
+        assertThat(region().getMissCount()).isEqualTo(2);
+        assertThat(region().getHitCount()).isZero();
+    }
+
+    // JUnit test for deletes by id evicting the cached rows
+    @DisplayName("JUnit test for delete by id and bulk delete evicting the cached employees")
+    @Test
+    public void givenCachedEmployees_whenBulkDeletes_thenEvicted(){
+        //given - precondition or setup
+        Employee employee1 = employeeRepository.save(Employee.builder()
+                .firstName("Maria")
+                .lastName("Silva")
+                .email("mariasilva21@gmail.com")
+                .build());
+        employeeRepository.findById(employee1.getId());
+        statistics.clear();
+
+        //when - action ir the behaviour we are going to test
+        transactionTemplate.executeWithoutResult(status -> employeeRepository.deleteEmployeeById(employee.getId()));
+        Optional<Employee> deleted = employeeRepository.findById(employee.getId());
+        transactionTemplate.executeWithoutResult(status ->
+                employeeRepository.deleteEmployeesByIdIn(List.of(employee1.getId())));
+        Optional<Employee> deleted1 = employeeRepository.findById(employee1.getId());
+
+        //then  - verify the output
+        assertThat(deleted).isEmpty();
+        assertThat(deleted1).isEmpty();
+        assertThat(region().getHitCount()).isZero();
+        assertThat(region().getMissCount()).isEqualTo(2);
+    }
+
+    // JUnit test for writes by id keeping the rest of the region
+    @DisplayName("JUnit test for update, patch and delete of one id leaving another cached employee a hit")
+    @Test
+    public void givenTwoCachedEmployees_whenWritesToOne_thenOtherStillHit(){
+        //given - precondition or setup
+        Employee other = employeeRepository.save(Employee.builder()
+                .firstName("Maria")
+                .lastName("Silva")
+                .email("mariasilva21@gmail.com")
+                .build());
+        employeeRepository.findById(other.getId());
+        Long id = employee.getId();
+        statistics.clear();
+
+        //when - action ir the behaviour we are going to test
+        transactionTemplate.executeWithoutResult(status -> employeeRepository.updateById(id, "Ana", "Costa",
+                "anacosta7@gmail.com", Instant.now()));
+        Optional<Employee> afterUpdate = employeeRepository.findById(other.getId());
+        transactionTemplate.executeWithoutResult(status -> employeeRepository.patchById(id, null,
+                Map.of("lastName", "Souza"), Instant.now()));
+        Optional<Employee> afterPatch = employeeRepository.findById(other.getId());
+        transactionTemplate.executeWithoutResult(status -> employeeRepository.deleteEmployeeById(id));
+        Optional<Employee> afterDelete = employeeRepository.findById(other.getId());
+
+        //then  - verify the output
+        assertThat(afterUpdate).isPresent();
+        assertThat(afterPatch).isPresent();
+        assertThat(afterDelete).isPresent();
+        assertThat(region().getHitCount()).isEqualTo(3);
+        assertThat(region().getMissCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private CacheRegionStatistics region() {
+        return statistics.getDomainDataRegionStatistics(EmployeeCacheConfig.EMPLOYEE_REGION);
+    }
+}
@@ -0,0 +1,90 @@
+package com.orldev.springboot.service;
+
+import com.orldev.springboot.dto.EmployeeDeleteResult;
+import com.orldev.springboot.event.EmployeeEvent;
+import com.orldev.springboot.model.Employee;
+import com.orldev.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Two writers on a real database, each call commits
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulkdelete;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@RecordApplicationEvents
+public class EmployeeBulkDeleteTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    public void tearDown(){
+        executor.shutdownNow();
+        employeeRepository.deleteAll();
+    }
+
+    // JUnit test for a bulk delete racing a concurrent delete
+    @DisplayName("JUnit test for bulk delete publishing only the rows it deleted while another transaction deletes one")
+    @Test
+    public void givenConcurrentDelete_whenDeleteEmployees_thenOnlyOwnDeletesPublished() throws Exception {
+        //given - precondition or setup
+        List<Long> ids = employeeService.saveEmployees(List.of(
+                Employee.builder().firstName("Orlando").lastName("Cruz").email("orlandocruz999@gmail.com").build(),
+                Employee.builder().firstName("Maria").lastName("Silva").email("mariasilva21@gmail.com").build()))
+                .stream().map(Employee::getId).toList();
+        CountDownLatch locked = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        //Holds the first row locked while the bulk delete starts, then deletes it
+        Future<Integer> concurrent = executor.submit(() -> transactionTemplate.execute(status -> {
+            employeeRepository.findIdsByIdInForUpdate(List.of(ids.get(0)));
+            locked.countDown();
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return employeeRepository.deleteEmployeesByIdIn(List.of(ids.get(0)));
+        }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //when - action ir the behaviour we are going to test
+        EmployeeDeleteResult result = employeeService.deleteEmployees(ids);
+
+        //then  - verify the output
+        assertThat(concurrent.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(result.deleted()).isEqualTo(1);
+        assertThat(applicationEvents.stream(EmployeeEvent.class)
+                .filter(event -> event.type() == EmployeeEvent.Type.DELETED)
+                .map(EmployeeEvent::id))
+                .containsExactly(ids.get(1));
+    }
+}
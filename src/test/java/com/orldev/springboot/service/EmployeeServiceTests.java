@@ -1,9 +1,26 @@
 package com.orldev.springboot.service;
 
+import com.orldev.springboot.dto.EmployeeCursor;
+import com.orldev.springboot.dto.EmployeeDeleteResult;
+import com.orldev.springboot.dto.EmployeePage;
+import com.orldev.springboot.dto.EmployeeSearchHit;
+import com.orldev.springboot.dto.EmployeeSuggestion;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.event.EmployeeEvent;
+import com.orldev.springboot.exception.DuplicateEmailException;
+import com.orldev.springboot.exception.ResourceConflictException;
 import com.orldev.springboot.exception.ResourceNotFoundException;
+import com.orldev.springboot.index.EmailBloomFilter;
+import com.orldev.springboot.index.EmployeeFullTextIndex;
+import com.orldev.springboot.index.EmployeeNameIndex;
 import com.orldev.springboot.model.Employee;
 import com.orldev.springboot.repository.EmployeeRepository;
 import com.orldev.springboot.service.impl.EmployeeServiceImpl;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,11 +32,21 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -28,6 +55,16 @@ public class EmployeeServiceTests {
 
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private EmailBloomFilter emailBloomFilter;
+    @Mock
+    private EmployeeNameIndex employeeNameIndex;
+    @Mock
+    private EmployeeFullTextIndex employeeFullTextIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks //InjectMocks needs a Class to instantiate not a Interface
     private EmployeeServiceImpl employeeService;
 
@@ -52,11 +89,13 @@ public class EmployeeServiceTests {
     @Test
     public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject(){
         //given - precondition or setup
+        BDDMockito.given(emailBloomFilter.mightContain(employee.getEmail()))
+                .willReturn(true);
 
         BDDMockito.given(employeeRepository.findByEmail(employee.getEmail()))
                 .willReturn(Optional.empty());
 
-        BDDMockito.given(employeeService.saveEmployee(employee))
+        BDDMockito.given(employeeRepository.saveAndFlush(employee))
                 .willReturn(employee);
 
         System.out.println(employeeRepository);
@@ -76,6 +115,9 @@ public class EmployeeServiceTests {
     public void givenExistingEmail_whenSaveEmployee_thenThrowsException(){
 
         //given - precondition or setup
+        BDDMockito.given(emailBloomFilter.mightContain(employee.getEmail()))
+                .willReturn(true);
+
         BDDMockito.given(employeeRepository.findByEmail(employee.getEmail()))
                 .willReturn(Optional.of(employee));
 
@@ -86,7 +128,7 @@ public class EmployeeServiceTests {
 
 
         //then  - verify the output
-        Mockito.verify(employeeRepository, Mockito.never()).save(employee);
+        Mockito.verify(employeeRepository, Mockito.never()).saveAndFlush(employee);
     }
 
     // JUnit test for get all Employees method
@@ -101,10 +143,10 @@ public class EmployeeServiceTests {
                 .email("mariasilva12@gmail.com")
                 .build();
 
-        BDDMockito.given(employeeRepository.findAll()).willReturn(List.of(employee, employee1));
+        BDDMockito.given(employeeRepository.findAllViews()).willReturn(List.of(EmployeeView.of(employee), EmployeeView.of(employee1)));
 
         //when - action ir the behaviour we are going to test
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        List<EmployeeView> employeeList = employeeService.getAllEmployees();
 
         //then  - verify the output
         assertThat(employeeList).isNotNull();
@@ -118,10 +160,10 @@ public class EmployeeServiceTests {
         //given - precondition or setup
 
 
-        BDDMockito.given(employeeRepository.findAll()).willReturn(Collections.emptyList());
+        BDDMockito.given(employeeRepository.findAllViews()).willReturn(Collections.emptyList());
 
         //when - action ir the behaviour we are going to test
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        List<EmployeeView> employeeList = employeeService.getAllEmployees();
 
         //then  - verify the output
         assertThat(employeeList).isEmpty();
@@ -133,14 +175,67 @@ public class EmployeeServiceTests {
     @Test
     public void givenEmployeeID_whenGetEmployeeById_thenReturnEmployee(){
         //given - precondition or setup
+        givenSecondLevelCacheContains(1L, false);
+        BDDMockito.given(employeeRepository.findViewById(1L))
+                .willReturn(Optional.of(EmployeeView.of(employee)));
+
+        //when - action ir the behaviour we are going to test
+        Optional<EmployeeView> savedEmployee = employeeService.getEmployeeById(employee.getId());
+
+        //then  - verify the output
+        assertThat(savedEmployee.isPresent()).isTrue();
+        assertThat(savedEmployee.get().email()).isEqualTo(employee.getEmail());
+        Mockito.verify(employeeRepository, Mockito.never()).findById(1L);
+    }
+
+    // JUnit test for get Employee by id from the second-level cache
+    @DisplayName("JUnit test for get Employee by id from the second-level cache")
+    @Test
+    public void givenCachedEmployeeID_whenGetEmployeeById_thenReturnEmployeeWithoutQuery(){
+        //given - precondition or setup
+        givenSecondLevelCacheContains(1L, true);
         BDDMockito.given(employeeRepository.findById(1L))
                 .willReturn(Optional.of(employee));
 
         //when - action ir the behaviour we are going to test
-        Optional<Employee> savedEmployee = employeeService.getEmployeeById(employee.getId());
+        Optional<EmployeeView> savedEmployee = employeeService.getEmployeeById(employee.getId());
 
         //then  - verify the output
-        assertThat(savedEmployee.isPresent()).isTrue();
+        assertThat(savedEmployee).contains(EmployeeView.of(employee));
+        Mockito.verify(employeeRepository, Mockito.never()).findViewById(1L);
+    }
+
+    // JUnit test for get Employees by ids
+    @DisplayName("JUnit test for get Employees by ids with one IN query for uncached ids")
+    @Test
+    public void givenIds_whenGetEmployeesById_thenCachedAndQueriedEmployeesByIdWithoutMissing(){
+        //given - precondition or setup
+        EmployeeView other = new EmployeeView(2L, "Maria", "Silva", "mariasilva12@gmail.com", 0L, null);
+        EntityManagerFactory entityManagerFactory = Mockito.mock(EntityManagerFactory.class);
+        Cache cache = Mockito.mock(Cache.class);
+        BDDMockito.given(entityManager.getEntityManagerFactory()).willReturn(entityManagerFactory);
+        BDDMockito.given(entityManagerFactory.getCache()).willReturn(cache);
+        BDDMockito.given(cache.contains(BDDMockito.eq(Employee.class), BDDMockito.any()))
+                .willAnswer(invocation -> invocation.getArgument(1).equals(1L));
+        BDDMockito.given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        BDDMockito.given(employeeRepository.findViewsByIdIn(List.of(2L, 3L))).willReturn(List.of(other));
+
+        //when - action ir the behaviour we are going to test
+        Map<Long, EmployeeView> employees = employeeService.getEmployeesById(Arrays.asList(1L, 2L, 3L, 2L, null));
+
+        //then  - verify the output
+        assertThat(employees).containsOnlyKeys(1L, 2L);
+        assertThat(employees.get(1L)).isEqualTo(EmployeeView.of(employee));
+        assertThat(employees.get(2L)).isEqualTo(other);
+        BDDMockito.verify(employeeRepository, Mockito.times(1)).findViewsByIdIn(BDDMockito.anyCollection());
+    }
+
+    private void givenSecondLevelCacheContains(Long id, boolean cached){
+        EntityManagerFactory entityManagerFactory = Mockito.mock(EntityManagerFactory.class);
+        Cache cache = Mockito.mock(Cache.class);
+        BDDMockito.given(entityManager.getEntityManagerFactory()).willReturn(entityManagerFactory);
+        BDDMockito.given(entityManagerFactory.getCache()).willReturn(cache);
+        BDDMockito.given(cache.contains(Employee.class, id)).willReturn(cached);
     }
 
 
@@ -149,38 +244,438 @@ public class EmployeeServiceTests {
     @Test
     public void givenEmployeeObject_whenUpdateEmployee_thenReturnEmployeeObject(){
         //given - precondition or setup
-        BDDMockito.given(employeeRepository.findById(1L))
-                .willReturn(Optional.of(employee));
-
-        BDDMockito.given(employeeService.saveEmployee(employee))
-                .willReturn(employee);
-
         employee.setFirstName("Cruz");
         employee.setLastName("Silva");
 
+        BDDMockito.given(employeeRepository.updateById(BDDMockito.eq(1L), BDDMockito.eq("Cruz"), BDDMockito.eq("Silva"),
+                        BDDMockito.eq(employee.getEmail()), BDDMockito.any(Instant.class)))
+                .willReturn(1);
+
         //when - action ir the behaviour we are going to test
         Employee updatedEmployee = employeeService.updateEmployee(1L, employee).get();
 
         //then  - verify the output
         assertThat(updatedEmployee.getFirstName()).isEqualTo("Cruz");
         assertThat(updatedEmployee.getLastName()).isEqualTo("Silva");
+        assertThat(updatedEmployee.getVersion()).isNull();
+        Mockito.verify(employeeRepository, Mockito.never()).findVersionById(1L);
     }
 
     // JUnit test for delete employee method
     @DisplayName("JUnit test for delete employee method")
     @Test
-    public void givenEmployeeId_whenDeleteEmployee_thenNothing(){
+    public void givenEmployeeId_whenDeleteEmployee_thenReturnTrue(){
         //given - precondition or setup
         long employeeId = 1L;
 
-        BDDMockito.willDoNothing().given(employeeRepository).deleteById(1L);
+        BDDMockito.given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(1);
+
+        //when - action ir the behaviour we are going to test
+        boolean deleted = employeeService.deleteEmployee(employeeId);
+
+        //then  - verify the output
+        assertThat(deleted).isTrue();
+        BDDMockito.verify(employeeRepository, Mockito.never()).findById(employeeId);
+    }
+
+    // JUnit test for bulk delete employees method
+    @DisplayName("JUnit test for bulk delete employees method")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenDeleteInChunks(){
+        //given - precondition or setup
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().toList();
+
+        //Ids above 2400 have no row
+        BDDMockito.given(employeeRepository.findIdsByIdInForUpdate(BDDMockito.anyCollection())).willAnswer(invocation -> {
+            Collection<Long> chunk = invocation.getArgument(0);
+            return chunk.stream().filter(id -> id <= 2400).toList();
+        });
+        BDDMockito.given(employeeRepository.deleteEmployeesByIdIn(BDDMockito.anyCollection())).willReturn(1000, 1000, 400);
+
+        //when - action ir the behaviour we are going to test
+        EmployeeDeleteResult result = employeeService.deleteEmployees(ids);
+
+        //then  - verify the output
+        assertThat(result.requested()).isEqualTo(2500);
+        assertThat(result.deleted()).isEqualTo(2400);
+        BDDMockito.verify(employeeRepository, Mockito.times(3)).deleteEmployeesByIdIn(BDDMockito.anyCollection());
+        BDDMockito.verify(eventPublisher, Mockito.times(2400)).publishEvent(BDDMockito.any(EmployeeEvent.class));
+        BDDMockito.verify(eventPublisher).publishEvent(EmployeeEvent.deleted(2400L));
+        BDDMockito.verify(eventPublisher, Mockito.never()).publishEvent(EmployeeEvent.deleted(2401L));
+    }
+
+    // JUnit test for bulk delete employees method with unknown ids
+    @DisplayName("JUnit test for bulk delete employees method with only unknown ids")
+    @Test
+    public void givenUnknownEmployeeIds_whenDeleteEmployees_thenNothingDeletedOrPublished(){
+        //given - precondition or setup
+        BDDMockito.given(employeeRepository.findIdsByIdInForUpdate(BDDMockito.anyCollection())).willReturn(List.of());
+
+        //when - action ir the behaviour we are going to test
+        EmployeeDeleteResult result = employeeService.deleteEmployees(List.of(41L, 42L));
+
+        //then  - verify the output
+        assertThat(result.requested()).isEqualTo(2);
+        assertThat(result.deleted()).isZero();
+        BDDMockito.verify(employeeRepository, Mockito.never()).deleteEmployeesByIdIn(BDDMockito.anyCollection());
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    // JUnit test for get Employees page method
+    @DisplayName("JUnit test for get Employees page method")
+    @Test
+    public void givenMoreRowsThanLimit_whenGetEmployeesPage_thenReturnPageWithNextCursor(){
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("Maria")
+                .lastName("Silva")
+                .email("mariasilva12@gmail.com")
+                .build();
+
+        BDDMockito.given(employeeRepository.findPageOrderById(BDDMockito.eq(0L), BDDMockito.any(Pageable.class)))
+                .willReturn(List.of(EmployeeView.of(employee), EmployeeView.of(employee1)));
+
+        //when - action ir the behaviour we are going to test
+        EmployeePage page = employeeService.getEmployeesPage(null, 1, "id");
+
+        //then  - verify the output
+        assertThat(page.employees()).containsExactly(EmployeeView.of(employee));
+        assertThat(EmployeeCursor.decode(page.nextCursor()).id()).isEqualTo(employee.getId());
+    }
+
+    // JUnit test for get Employees page method which throws exception
+    @DisplayName("JUnit test for get Employees page method which throws exception")
+    @Test
+    public void givenUnknownSortKey_whenGetEmployeesPage_thenThrowsException(){
+        //when - action ir the behaviour we are going to test
+        Assertions.assertThrows(IllegalArgumentException.class, ()-> {
+            employeeService.getEmployeesPage(null, 10, "salary");
+        });
+
+        //then  - verify the output
+        Mockito.verifyNoInteractions(employeeRepository);
+    }
+
+    // JUnit test for search Employees method
+    @DisplayName("JUnit test for search Employees method")
+    @Test
+    public void givenNamePrefixes_whenSearchEmployees_thenQueryByEscapedLastNamePrefix(){
+        //given - precondition or setup
+        BDDMockito.given(employeeRepository.searchByLastNamePrefix(BDDMockito.eq("Cr!_z%"), BDDMockito.eq("Or%"),
+                        BDDMockito.eq(""), BDDMockito.eq(0L), BDDMockito.any(Pageable.class)))
+                .willReturn(List.of(EmployeeView.of(employee)));
+
+        //when - action ir the behaviour we are going to test
+        EmployeePage page = employeeService.searchEmployees("Or", "Cr_z", null, 10);
+
+        //then  - verify the output
+        assertThat(page.employees()).containsExactly(EmployeeView.of(employee));
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    // JUnit test for search Employees method which throws exception
+    @DisplayName("JUnit test for search Employees method which throws exception")
+    @Test
+    public void givenNoNamePrefix_whenSearchEmployees_thenThrowsException(){
+        //when - action ir the behaviour we are going to test
+        Assertions.assertThrows(IllegalArgumentException.class, ()-> {
+            employeeService.searchEmployees(null, " ", null, 10);
+        });
+
+        //then  - verify the output
+        Mockito.verifyNoInteractions(employeeRepository);
+    }
+
+    // JUnit test for suggest Employees method
+    @DisplayName("JUnit test for suggest Employees method")
+    @Test
+    public void givenPrefix_whenSuggestEmployees_thenReturnSuggestionsFromNameIndex(){
+        //given - precondition or setup
+        EmployeeSuggestion suggestion = new EmployeeSuggestion(1L, "Orlando", "Cruz");
+        BDDMockito.given(employeeNameIndex.isEnabled()).willReturn(true);
+        BDDMockito.given(employeeNameIndex.suggest("orl", 5)).willReturn(List.of(suggestion));
+
+        //when - action ir the behaviour we are going to test
+        List<EmployeeSuggestion> suggestions = employeeService.suggestEmployees("orl", 5);
+
+        //then  - verify the output
+        assertThat(suggestions).containsExactly(suggestion);
+        Mockito.verifyNoInteractions(employeeRepository);
+    }
+
+    // JUnit test for full-text search Employees method
+    @DisplayName("JUnit test for full-text search Employees method")
+    @Test
+    public void givenQuery_whenFullTextSearch_thenReturnHitsWithCappedLimit(){
+        //given - precondition or setup
+        EmployeeSearchHit hit = new EmployeeSearchHit(1L, "Orlando", "Cruz", "orlandocruz999@gmail.com", 1.5f);
+        BDDMockito.given(employeeFullTextIndex.search("orlnado", 500)).willReturn(List.of(hit));
+
+        //when - action ir the behaviour we are going to test
+        List<EmployeeSearchHit> hits = employeeService.fullTextSearch(" orlnado ", 10_000);
+
+        //then  - verify the output
+        assertThat(hits).containsExactly(hit);
+        Mockito.verifyNoInteractions(employeeRepository);
+    }
+
+    // JUnit test for full-text search Employees method with blank query
+    @DisplayName("JUnit test for full-text search Employees method with blank query")
+    @Test
+    public void givenBlankQuery_whenFullTextSearch_thenThrowsIllegalArgumentException(){
+        //given - precondition or setup
+        //when - action ir the behaviour we are going to test
+        //then  - verify the output
+        Assertions.assertThrows(IllegalArgumentException.class, () -> employeeService.fullTextSearch(" ", 10));
+        Mockito.verifyNoInteractions(employeeFullTextIndex);
+    }
+
+    // JUnit test for export employees method
+    @DisplayName("JUnit test for export employees method")
+    @Test
+    public void givenEmployeesStream_whenExportEmployees_thenConsumeEachEmployee(){
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("Maria")
+                .lastName("Silva")
+                .email("mariasilva12@gmail.com")
+                .build();
+
+        BDDMockito.given(employeeRepository.streamAllOrderById())
+                .willReturn(Stream.of(EmployeeView.of(employee), EmployeeView.of(employee1)));
+
+        //when - action ir the behaviour we are going to test
+        List<EmployeeView> exported = new ArrayList<>();
+        long count = employeeService.exportEmployees(exported::add);
+
+        //then  - verify the output
+        assertThat(count).isEqualTo(2);
+        assertThat(exported).extracting(EmployeeView::id).containsExactly(1L, 2L);
+        //views are never managed, there is nothing to detach
+        Mockito.verifyNoInteractions(entityManager);
+    }
+
+    // JUnit test for save employees batch method
+    @DisplayName("JUnit test for save employees batch method")
+    @Test
+    public void givenEmployeesList_whenSaveEmployees_thenReturnSavedEmployees(){
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Maria")
+                .lastName("Silva")
+                .email("mariasilva12@gmail.com")
+                .build();
+        List<Employee> employees = List.of(employee, employee1);
+
+        BDDMockito.given(employeeRepository.findExistingEmails(BDDMockito.anyCollection()))
+                .willReturn(Collections.emptyList());
+        BDDMockito.given(employeeRepository.saveAll(employees)).willReturn(employees);
+
+        //when - action ir the behaviour we are going to test
+        List<Employee> savedEmployees = employeeService.saveEmployees(employees);
+
+        //then  - verify the output
+        assertThat(savedEmployees).containsExactly(employee, employee1);
+        Mockito.verify(employeeRepository, Mockito.times(1)).findExistingEmails(BDDMockito.anyCollection());
+        Mockito.verify(employeeRepository, Mockito.never()).findByEmail(BDDMockito.anyString());
+    }
+
+    // JUnit test for save employees batch method which throws exception
+    @DisplayName("JUnit test for save employees batch method which throws exception")
+    @Test
+    public void givenExistingEmailInBatch_whenSaveEmployees_thenThrowsException(){
+        //given - precondition or setup
+        BDDMockito.given(employeeRepository.findExistingEmails(BDDMockito.anyCollection()))
+                .willReturn(List.of(employee.getEmail()));
+
+        //when - action ir the behaviour we are going to test
+        Assertions.assertThrows(ResourceNotFoundException.class, ()-> {
+            employeeService.saveEmployees(List.of(employee));
+        });
+
+        //then  - verify the output
+        Mockito.verify(employeeRepository, Mockito.never()).saveAll(BDDMockito.anyList());
+    }
+
+    // JUnit test for save employees batch method when the unique index rejects an email at flush
+    @DisplayName("JUnit test for save employees batch method when the unique index rejects an email at flush")
+    @Test
+    public void givenUniqueIndexViolationAtFlush_whenSaveEmployees_thenThrowsDuplicateEmail(){
+        //given - precondition or setup
+        ConstraintViolationException violation = new ConstraintViolationException(
+                "Duplicate entry 'orlandocruz999@gmail.com' for key 'employees.uk_employees_email'", null,
+                "employees.uk_employees_email");
+
+        BDDMockito.given(employeeRepository.findExistingEmails(BDDMockito.anyCollection()))
+                .willReturn(Collections.emptyList());
+        BDDMockito.given(employeeRepository.saveAll(List.of(employee))).willReturn(List.of(employee));
+        BDDMockito.willThrow(new PersistenceException("could not execute batch", violation)).given(entityManager).flush();
+
+        //when - action ir the behaviour we are going to test
+        ResourceNotFoundException exception = Assertions.assertThrows(ResourceNotFoundException.class, ()-> {
+            employeeService.saveEmployees(List.of(employee));
+        });
+
+        //then  - verify the output
+        assertThat(exception.getMessage()).isEqualTo("Employee already exist with the given email:orlandocruz999@gmail.com");
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    // JUnit test for save employee method when the filter rules the email out
+    @DisplayName("JUnit test for save employee method when the filter rules the email out")
+    @Test
+    public void givenNewEmail_whenSaveEmployee_thenSkipEmailLookup(){
+        //given - precondition or setup
+        BDDMockito.given(emailBloomFilter.mightContain(employee.getEmail()))
+                .willReturn(false);
+
+        BDDMockito.given(employeeRepository.saveAndFlush(employee))
+                .willReturn(employee);
+
+        //when - action ir the behaviour we are going to test
+        Employee savedEmployee = employeeService.saveEmployee(employee);
+
+        //then  - verify the output
+        assertThat(savedEmployee).isNotNull();
+        Mockito.verify(employeeRepository, Mockito.never()).findByEmail(employee.getEmail());
+        Mockito.verify(emailBloomFilter).put(employee.getEmail());
+    }
+
+    // JUnit test for save employee method when the unique index rejects the email
+    @DisplayName("JUnit test for save employee method when the unique index rejects the email")
+    @Test
+    public void givenUniqueIndexViolation_whenSaveEmployee_thenThrowsException(){
+        //given - precondition or setup
+        ConstraintViolationException violation = new ConstraintViolationException(
+                "Duplicate entry", null, "employees.uk_employees_email");
+
+        BDDMockito.given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("could not execute statement", violation));
+
+        //when - action ir the behaviour we are going to test
+        Assertions.assertThrows(ResourceNotFoundException.class, ()-> {
+            employeeService.saveEmployee(employee);
+        });
+
+        //then  - verify the output
+        Mockito.verify(emailBloomFilter, Mockito.never()).put(employee.getEmail());
+    }
+
+    // JUnit test for get Employee version method
+    @DisplayName("JUnit test for get Employee version method")
+    @Test
+    public void givenUncachedEmployee_whenGetEmployeeVersion_thenUseVersionQuery(){
+        //given - precondition or setup
+        EntityManagerFactory entityManagerFactory = Mockito.mock(EntityManagerFactory.class);
+        Cache cache = Mockito.mock(Cache.class);
+        BDDMockito.given(entityManager.getEntityManagerFactory()).willReturn(entityManagerFactory);
+        BDDMockito.given(entityManagerFactory.getCache()).willReturn(cache);
+        BDDMockito.given(cache.contains(Employee.class, 1L)).willReturn(false);
+        BDDMockito.given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(4L));
+
+        //when - action ir the behaviour we are going to test
+        Optional<Long> version = employeeService.getEmployeeVersion(1L);
+
+        //then  - verify the output
+        assertThat(version).contains(4L);
+        Mockito.verify(employeeRepository, Mockito.never()).findById(1L);
+    }
+
+    // JUnit test for update employee method with a stale version
+    @DisplayName("JUnit test for update employee method with a stale version")
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenThrowsConflict(){
+        //given - precondition or setup
+        employee.setVersion(2L);
+
+        BDDMockito.given(employeeRepository.updateByIdAndVersion(BDDMockito.eq(1L), BDDMockito.eq(2L), BDDMockito.anyString(),
+                        BDDMockito.anyString(), BDDMockito.anyString(), BDDMockito.any(Instant.class)))
+                .willReturn(0);
+        BDDMockito.given(employeeRepository.existsById(1L)).willReturn(true);
 
         //when - action ir the behaviour we are going to test
-        employeeService.deleteEmployee(employeeId);
+        Assertions.assertThrows(ResourceConflictException.class, ()-> {
+            employeeService.updateEmployee(1L, employee);
+        });
 
         //then  - verify the output
-        BDDMockito.verify(employeeRepository, Mockito.times(1)).deleteById(employeeId);
+        Mockito.verify(employeeRepository, Mockito.never()).save(BDDMockito.any(Employee.class));
     }
 
+    // JUnit test for update employee method with a taken email
+    @DisplayName("JUnit test for update employee method when the unique index rejects the email")
+    @Test
+    public void givenUniqueIndexViolation_whenUpdateEmployee_thenThrowsDuplicateEmail(){
+        //given - precondition or setup
+        ConstraintViolationException violation = new ConstraintViolationException(
+                "Duplicate entry", null, "employees.uk_employees_email");
+
+        BDDMockito.given(employeeRepository.updateById(BDDMockito.eq(1L), BDDMockito.anyString(), BDDMockito.anyString(),
+                        BDDMockito.anyString(), BDDMockito.any(Instant.class)))
+                .willThrow(new DataIntegrityViolationException("could not execute statement", violation));
+
+        //when - action ir the behaviour we are going to test
+        Assertions.assertThrows(DuplicateEmailException.class, ()-> {
+            employeeService.updateEmployee(1L, employee);
+        });
+
+        //then  - verify the output
+        Mockito.verify(employeeRepository, Mockito.never()).existsById(1L);
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    // JUnit test for update employee method with a missing id
+    @DisplayName("JUnit test for update employee method with a missing id")
+    @Test
+    public void givenMissingId_whenUpdateEmployee_thenThrowsNotFound(){
+        //given - precondition or setup
+        BDDMockito.given(employeeRepository.updateById(BDDMockito.eq(1L), BDDMockito.anyString(), BDDMockito.anyString(),
+                        BDDMockito.anyString(), BDDMockito.any(Instant.class)))
+                .willReturn(0);
+
+        //when - action ir the behaviour we are going to test
+        Assertions.assertThrows(ResourceNotFoundException.class, ()-> {
+            employeeService.updateEmployee(1L, employee);
+        });
+
+        //then  - verify the output
+        Mockito.verify(employeeRepository, Mockito.never()).existsById(1L);
+    }
+
+    // JUnit test for patch employee method
+    @DisplayName("JUnit test for patch employee method")
+    @Test
+    public void givenMergePatch_whenPatchEmployee_thenUpdateOnlyGivenFields(){
+        //given - precondition or setup
+        BDDMockito.given(employeeRepository.patchById(BDDMockito.eq(1L), BDDMockito.eq(0L),
+                        BDDMockito.eq(Map.of("lastName", "Silva")), BDDMockito.any(Instant.class)))
+                .willReturn(1);
+        BDDMockito.given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        //when - action ir the behaviour we are going to test
+        Optional<Employee> patchedEmployee = employeeService.patchEmployee(1L, Map.of("lastName", "Silva"), 0L);
+
+        //then  - verify the output
+        assertThat(patchedEmployee).contains(employee);
+    }
+
+    // JUnit test for patch employee method which throws exception
+    @DisplayName("JUnit test for patch employee method which throws exception")
+    @Test
+    public void givenNullMember_whenPatchEmployee_thenThrowsException(){
+        //given - precondition or setup
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("email", null);
+
+        //when - action ir the behaviour we are going to test
+        Assertions.assertThrows(IllegalArgumentException.class, ()-> {
+            employeeService.patchEmployee(1L, patch, null);
+        });
+
+        //then  - verify the output
+        Mockito.verifyNoInteractions(employeeRepository);
+    }
 
 }
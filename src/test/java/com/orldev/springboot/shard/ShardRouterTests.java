@@ -0,0 +1,74 @@
+package com.orldev.springboot.shard;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ShardRouterTests {
+
+    // JUnit test for placing emails on a stable shard regardless of case
+    @DisplayName("JUnit test for placing emails on a stable shard regardless of case")
+    @Test
+    public void givenEmail_whenShardForEmail_thenSameShardForAnyCase(){
+        //given - precondition or setup
+        ShardRouter router = new ShardRouter(4);
+
+        //when - action ir the behaviour we are going to test
+        int shard = router.shardForEmail("orlandocruz999@gmail.com");
+
+        //then  - verify the output
+        assertThat(shard).isBetween(0, 3);
+        assertThat(router.shardForEmail(" OrlandoCruz999@Gmail.com")).isEqualTo(shard);
+        assertThat(router.shardForEmail("orlandocruz999@gmail.com")).isEqualTo(shard);
+    }
+
+    // JUnit test for spreading emails over every shard
+    @DisplayName("JUnit test for spreading emails over every shard")
+    @Test
+    public void givenManyEmails_whenShardForEmail_thenEveryShardUsed(){
+        //given - precondition or setup
+        ShardRouter router = new ShardRouter(3);
+
+        //when - action ir the behaviour we are going to test
+        Set<Integer> shards = new HashSet<>();
+        IntStream.range(0, 100).forEach(i -> shards.add(router.shardForEmail("employee" + i + "@gmail.com")));
+
+        //then  - verify the output
+        assertThat(shards).containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    // JUnit test for reading the shard back from an encoded id
+    @DisplayName("JUnit test for reading the shard back from an encoded id")
+    @Test
+    public void givenEncodedId_whenShardForId_thenOriginalShard(){
+        //given - precondition or setup
+        ShardRouter router = new ShardRouter(3);
+
+        //when - action ir the behaviour we are going to test
+        long id = ShardRouter.encodeId(51, 2, 3);
+
+        //then  - verify the output
+        assertThat(id).isEqualTo(155);
+        assertThat(router.shardForId(id)).isEqualTo(2);
+        assertThat(router.shardForId(ShardRouter.encodeId(51, 0, 3))).isZero();
+        assertThat(router.shardForId(ShardRouter.encodeId(52, 1, 3))).isEqualTo(1);
+        assertThat(new ShardRouter(1).shardForId(42)).isZero();
+    }
+
+    // JUnit test for rejecting an empty shard set
+    @DisplayName("JUnit test for rejecting an empty shard set")
+    @Test
+    public void givenZeroShards_whenCreateRouter_thenThrowsException(){
+        //given - precondition or setup
+
+        //when - action ir the behaviour we are going to test
+        //then  - verify the output
+        assertThatThrownBy(() -> new ShardRouter(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,226 @@
+package com.orldev.springboot.shard;
+
+import com.orldev.springboot.dto.EmployeePage;
+import com.orldev.springboot.dto.EmployeeTableStats;
+import com.orldev.springboot.dto.EmployeeView;
+import com.orldev.springboot.exception.DuplicateEmailException;
+import com.orldev.springboot.exception.PartialSaveException;
+import com.orldev.springboot.exception.ResourceNotFoundException;
+import com.orldev.springboot.model.Employee;
+import com.orldev.springboot.repository.EmployeeRepository;
+import com.orldev.springboot.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+//Three in memory databases as shards, every call commits so the shards hold real rows
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shard0;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "employees.sharding.enabled=true",
+        "employees.sharding.urls=jdbc:h2:mem:shard1;MODE=MySQL;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard2;MODE=MySQL;DB_CLOSE_DELAY=-1"
+})
+public class ShardedEmployeeServiceTests {
+
+    private static final List<String> FIRST_NAMES = List.of("Ana", "Bruno", "Carla", "Diego", "Elisa");
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private List<Employee> employees;
+
+    @BeforeEach
+    public void setup(){
+        employeeService.deleteEmployees(employeeService.getAllEmployees().stream().map(EmployeeView::id).toList());
+        employees = IntStream.range(0, 30)
+                .mapToObj(i -> Employee.builder()
+                        .firstName(FIRST_NAMES.get(i % FIRST_NAMES.size()))
+                        .lastName("Cruz" + i)
+                        .email("employee" + i + "@gmail.com")
+                        .build())
+                .toList();
+    }
+
+    // JUnit test for placing employees on the shard of their email
+    @DisplayName("JUnit test for placing employees on the shard of their email")
+    @Test
+    public void givenEmployees_whenSaveEmployees_thenEachRowOnItsEmailShard(){
+        //given - precondition or setup
+
+        //when - action ir the behaviour we are going to test
+        List<Employee> savedEmployees = employeeService.saveEmployees(employees);
+
+        //then  - verify the output
+        assertThat(savedEmployees).extracting(Employee::getEmail)
+                .containsExactlyElementsOf(employees.stream().map(Employee::getEmail).toList());
+        for (Employee employee : savedEmployees) {
+            int shard = shardRouter.shardForEmail(employee.getEmail());
+            assertThat(shardRouter.shardForId(employee.getId())).isEqualTo(shard);
+            assertThat(ShardContext.run(shard, () -> employeeRepository.findViewById(employee.getId()))).isPresent();
+        }
+        shardRouter.shards().forEach(shard -> assertThat(countOnShard(shard)).isPositive());
+        assertThat(employeeService.getEmployeeById(savedEmployees.get(7).getId()))
+                .hasValueSatisfying(view -> assertThat(view.email()).isEqualTo("employee7@gmail.com"));
+    }
+
+    // JUnit test for merging the shards in id order
+    @DisplayName("JUnit test for merging the shards in id order")
+    @Test
+    public void givenEmployeesOnAllShards_whenGetAllAndExport_thenSortedById(){
+        //given - precondition or setup
+        employeeService.saveEmployees(employees);
+
+        //when - action ir the behaviour we are going to test
+        List<EmployeeView> all = employeeService.getAllEmployees();
+        List<EmployeeView> exported = new ArrayList<>();
+        long count = employeeService.exportEmployees(exported::add);
+
+        //then  - verify the output
+        assertThat(all).hasSize(30).isSortedAccordingTo(Comparator.comparing(EmployeeView::id));
+        assertThat(count).isEqualTo(30);
+        assertThat(exported).isEqualTo(all);
+        EmployeeTableStats stats = employeeService.getEmployeeTableStats();
+        assertThat(stats.count()).isEqualTo(30);
+        assertThat(stats.maxId()).isEqualTo(all.get(29).id());
+    }
+
+    // JUnit test for keyset pages spanning the shards
+    @DisplayName("JUnit test for keyset pages spanning the shards")
+    @Test
+    public void givenEmployeesOnAllShards_whenWalkPagesByFirstName_thenGlobalOrderWithoutGaps(){
+        //given - precondition or setup
+        employeeService.saveEmployees(employees);
+        List<EmployeeView> expected = employeeService.getAllEmployees().stream()
+                .sorted(Comparator.comparing(EmployeeView::firstName).thenComparing(EmployeeView::id))
+                .toList();
+
+        //when - action ir the behaviour we are going to test
+        List<EmployeeView> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            EmployeePage page = employeeService.getEmployeesPage(cursor, 7, "firstName");
+            walked.addAll(page.employees());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        //then  - verify the output
+        assertThat(walked).isEqualTo(expected);
+        assertThat(pages).isEqualTo(5);
+    }
+
+    // JUnit test for looking up ids spread over the shards
+    @DisplayName("JUnit test for looking up ids spread over the shards")
+    @Test
+    public void givenIdsOnAllShards_whenGetEmployeesById_thenEveryFoundEmployee(){
+        //given - precondition or setup
+        List<Long> ids = new ArrayList<>(employeeService.saveEmployees(employees).stream().map(Employee::getId).toList());
+        ids.add(ids.get(29) + 1000);
+
+        //when - action ir the behaviour we are going to test
+        Map<Long, EmployeeView> found = employeeService.getEmployeesById(ids);
+
+        //then  - verify the output
+        assertThat(found).hasSize(30).containsKeys(ids.subList(0, 30).toArray(Long[]::new));
+        assertThat(found.get(ids.get(7)).email()).isEqualTo("employee7@gmail.com");
+    }
+
+    // JUnit test for email uniqueness across shards
+    @DisplayName("JUnit test for email uniqueness across shards")
+    @Test
+    public void givenEmailOnAnotherShard_whenUpdateOrSave_thenThrowsException(){
+        //given - precondition or setup
+        List<Employee> savedEmployees = employeeService.saveEmployees(employees);
+        Employee first = savedEmployees.get(0);
+        Employee other = savedEmployees.stream()
+                .filter(employee -> shardRouter.shardForId(employee.getId()) != shardRouter.shardForId(first.getId()))
+                .findFirst()
+                .orElseThrow();
+        Employee update = Employee.builder()
+                .firstName(other.getFirstName())
+                .lastName(other.getLastName())
+                .email(first.getEmail())
+                .build();
+
+        //when - action ir the behaviour we are going to test
+        //then  - verify the output
+        assertThatThrownBy(() -> employeeService.updateEmployee(other.getId(), update))
+                .isInstanceOf(DuplicateEmailException.class);
+        assertThatThrownBy(() -> employeeService.saveEmployee(Employee.builder()
+                .firstName("Orlando")
+                .lastName("Cruz")
+                .email(first.getEmail())
+                .build()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    // JUnit test for a batch that fails on one shard only
+    @DisplayName("JUnit test for a batch failing on one shard reporting the rows the other shards committed")
+    @Test
+    public void givenInvalidRowOnOneShard_whenSaveEmployees_thenPartialSaveReported(){
+        //given - precondition or setup
+        List<Employee> batch = new ArrayList<>(employees);
+        Employee invalid = Employee.builder().lastName("Cruz").email("invalid@gmail.com").build();
+        batch.add(invalid);
+        int failingShard = shardRouter.shardForEmail(invalid.getEmail());
+
+        //when - action ir the behaviour we are going to test
+        Throwable thrown = catchThrowable(() -> employeeService.saveEmployees(batch));
+
+        //then  - verify the output
+        assertThat(thrown).isInstanceOf(PartialSaveException.class);
+        List<Employee> saved = ((PartialSaveException) thrown).getSavedEmployees();
+        assertThat(saved).hasSize(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if(shardRouter.shardForEmail(batch.get(i).getEmail()) == failingShard){
+                assertThat(saved.get(i)).isNull();
+            }else{
+                assertThat(saved.get(i).getEmail()).isEqualTo(batch.get(i).getEmail());
+                assertThat(employeeService.getEmployeeById(saved.get(i).getId())).isPresent();
+            }
+        }
+        assertThat(countOnShard(failingShard)).isZero();
+    }
+
+    // JUnit test for deleting ids spread over the shards
+    @DisplayName("JUnit test for deleting ids spread over the shards")
+    @Test
+    public void givenEmployeesOnAllShards_whenDeleteEmployees_thenDeletedOnEachShard(){
+        //given - precondition or setup
+        List<Long> ids = employeeService.saveEmployees(employees).stream().map(Employee::getId).toList();
+
+        //when - action ir the behaviour we are going to test
+        boolean deleted = employeeService.deleteEmployee(ids.get(0));
+        int bulkDeleted = employeeService.deleteEmployees(ids.subList(0, 10)).deleted();
+
+        //then  - verify the output
+        assertThat(deleted).isTrue();
+        assertThat(bulkDeleted).isEqualTo(9);
+        assertThat(employeeService.getEmployeeById(ids.get(0))).isEmpty();
+        assertThat(employeeService.getAllEmployees()).hasSize(20);
+    }
+
+    private long countOnShard(int shard){
+        return ShardContext.run(shard, () -> employeeRepository.count());
+    }
+}
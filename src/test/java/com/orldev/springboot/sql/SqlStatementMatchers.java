@@ -0,0 +1,44 @@
+package com.orldev.springboot.sql;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.springframework.test.util.AssertionErrors.assertNotNull;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+//MockMvc assertions on the SQL round trips of a request, e.g. andExpect(sqlStatements().atMost(1))
+public class SqlStatementMatchers {
+
+    private SqlStatementMatchers() {
+    }
+
+    public static SqlStatementMatchers sqlStatements(){
+        return new SqlStatementMatchers();
+    }
+
+    public ResultMatcher atMost(int max){
+        return result -> {
+            SqlStatementStats stats = stats(result);
+            assertTrue("Expected at most " + max + " SQL statements but was " + stats, stats.getStatements() <= max);
+        };
+    }
+
+    public ResultMatcher exactly(int count){
+        return result -> {
+            SqlStatementStats stats = stats(result);
+            assertTrue("Expected " + count + " SQL statements but was " + stats, stats.getStatements() == count);
+        };
+    }
+
+    //No SELECT may run more than maxRepeats times, catches N+1 loading
+    public ResultMatcher noSelectRepeatedMoreThan(int maxRepeats){
+        return result -> stats(result).getMostRepeatedSelect().ifPresent(select ->
+                assertTrue("SELECT repeated " + select.getValue() + " times: " + select.getKey(), select.getValue() <= maxRepeats));
+    }
+
+    private static SqlStatementStats stats(MvcResult result){
+        SqlStatementStats stats = (SqlStatementStats) result.getRequest().getAttribute(SqlStatementStats.REQUEST_ATTRIBUTE);
+        assertNotNull("No SQL statement stats on the request, is SqlStatementFilter registered?", stats);
+        return stats;
+    }
+}